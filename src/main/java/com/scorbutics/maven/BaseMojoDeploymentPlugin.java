@@ -8,6 +8,7 @@ import java.util.stream.*;
 
 import org.apache.maven.execution.*;
 import org.apache.maven.plugin.*;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugins.annotations.*;
 
 import com.scorbutics.maven.model.*;
@@ -16,6 +17,7 @@ import com.scorbutics.maven.service.filesystem.local.*;
 import com.scorbutics.maven.service.filesystem.source.*;
 import com.scorbutics.maven.service.filesystem.target.*;
 import com.scorbutics.maven.service.packaging.*;
+import com.scorbutics.maven.util.*;
 
 import lombok.*;
 
@@ -32,9 +34,16 @@ public abstract class BaseMojoDeploymentPlugin
 	@Parameter(property = "structure")
 	private StructureConfiguration structure = new StructureConfiguration();
 
+	@Getter(AccessLevel.PROTECTED)
 	@Parameter(defaultValue = "${session}", required = true, readonly = true)
 	private MavenSession session;
 
+	@Parameter(defaultValue = "${plugin}", readonly = true)
+	private PluginDescriptor plugin;
+
+	@Getter(AccessLevel.PROTECTED)
+	private StartupTimeline timeline;
+
 	/**
 	 * Executes the Maven Mojo for hot deployment.
 	 * <p>
@@ -48,6 +57,7 @@ public abstract class BaseMojoDeploymentPlugin
 	 *                                or if an error occurs during hot deployment.
 	 */
 	public final void execute() throws MojoExecutionException {
+		timeline = new StartupTimeline();
 		final Path basePath = session.getCurrentProject().getBasedir().toPath();
         final Path target = Paths.get(this.target);
 
@@ -61,30 +71,86 @@ public abstract class BaseMojoDeploymentPlugin
 
 		final DeploymentType deploymentType = getDeploymentType();
 
-		Collection<Deployment> allDeployments;
+		boolean acting = false;
 		try {
-			final List<ProjectComputer> computers = getProjectComputers( fileSystemSourceReader ).collect( Collectors.toList() );
-			if (structure.getAutoDiscovery().isEnabled()) {
-				final int maxDeployedModulesDepthCheck =  structure.getAutoDiscovery().getMaxDeployedModulesDepthCheck();
-
-				allDeployments = new DeploymentComputer( getLog(), computers, fileSystemTargetAction, basePath, target, maxDeployedModulesDepthCheck )
-						.aggregateDeployments( session, deployments.stream().map(DeploymentRaw::toDeployment).collect(Collectors.toList()) , deploymentType.isForceTargetCreation(), deploymentType.isArchive() );
-			} else {
-				allDeployments = new ArrayList<>();
+			prepare( basePath, target );
+
+			Collection<Deployment> allDeployments;
+			try {
+				allDeployments = timeline.measure( "deployments", () -> {
+					final List<ProjectComputer> computers = getProjectComputers( fileSystemSourceReader ).collect( Collectors.toList() );
+					if (!structure.getAutoDiscovery().isEnabled()) {
+						return new ArrayList<>();
+					}
+					final int maxDeployedModulesDepthCheck =  structure.getAutoDiscovery().getMaxDeployedModulesDepthCheck();
+
+					final List<Deployment> manualDeployments = deployments.stream().map(DeploymentRaw::toDeployment).collect(Collectors.toList());
+					return computeDeployments( basePath, target, fileSystemTargetAction, computers, manualDeployments, () ->
+							new DeploymentComputer( getLog(), computers, fileSystemTargetAction, basePath, target, maxDeployedModulesDepthCheck )
+									.aggregateDeployments( session, manualDeployments, deploymentType.isForceTargetCreation(), deploymentType.isArchive() ) );
+				} );
+			} catch ( final IOException e ) {
+				throw new MojoExecutionException("Error computing deployments: " + e.getMessage(), e );
+			}
+
+			allDeployments = recursivelyFilterDeployments( allDeployments.stream(), filterDeployment() ).collect( Collectors.toList());
+
+			if (allDeployments.isEmpty()) {
+				getLog().info("No deployments defined");
+				return;
+			}
+			DeploymentBanner.print( getLog(), allDeployments, basePath, target );
+
+			acting = true;
+			actOnDeployments( basePath, target, fileSystemSourceReader, fileSystemTargetAction, allDeployments );
+		} finally {
+			if (!acting) {
+				cleanup();
 			}
-		} catch ( final IOException e ) {
-			throw new MojoExecutionException("Error computing deployments: " + e.getMessage(), e );
+			timeline.close();
 		}
+	}
 
-		allDeployments = recursivelyFilterDeployments( allDeployments.stream(), filterDeployment() ).collect( Collectors.toList());
+	private Collection<Deployment> computeDeployments( final Path basePath, final Path target, final FileSystemTargetAction fileSystemTargetAction, final List<ProjectComputer> computers, final List<Deployment> manualDeployments, final DeploymentsSupplier computer )
+			throws
+			IOException {
+		if (!structure.isCache()) {
+			return computer.get();
+		}
+		final DeploymentType deploymentType = getDeploymentType();
+		final DeploymentTopologyCache cache = new DeploymentTopologyCache( StateDirectory.forProject( getProjectDirectory( basePath ) ), deploymentType.name().toLowerCase( Locale.ROOT ), describePlugin(), getLog() );
+		final String fingerprint = cache.fingerprint( session.getProjects(), manualDeployments, fileSystemTargetAction, target, structure.getAutoDiscovery().getMaxDeployedModulesDepthCheck(),
+				deploymentType, computers.stream().map( projectComputer -> projectComputer.getClass().getName() ).collect( Collectors.joining( "," ) ) );
+		final Optional<Collection<Deployment>> cached = cache.get( fingerprint );
+		// The computation only reads the reactor and the target: a hit leaves the file systems as a computation would
+		if (cached.isPresent()) {
+			getLog().debug( "Reactor and target unchanged, reusing the deployments computed by the previous run" );
+			return cached.get();
+		}
+		final Collection<Deployment> computed = computer.get();
+		cache.put( fingerprint, computed );
+		return computed;
+	}
 
-		if (allDeployments.isEmpty()) {
-			getLog().info("No deployments defined");
-			return;
+	/*
+	 * Identifies the build of this plugin: a snapshot keeps its version when rebuilt, its artifact file does not
+	 */
+	private String describePlugin() {
+		if (plugin == null) {
+			return "";
 		}
-		DeploymentBanner.print( getLog(), allDeployments, basePath, target );
+		final File pluginFile = plugin.getPluginArtifact() != null ? plugin.getPluginArtifact().getFile() : null;
+		return pluginFile == null ? plugin.getId() : plugin.getId() + " " + pluginFile.lastModified() + " " + pluginFile.length();
+	}
+
+	protected Path getProjectDirectory(final Path basePath) {
+		final File multiModuleProjectDirectory = session.getRequest().getMultiModuleProjectDirectory();
+		return multiModuleProjectDirectory != null ? multiModuleProjectDirectory.toPath() : basePath;
+	}
 
-		actOnDeployments( basePath, target, fileSystemSourceReader, fileSystemTargetAction, allDeployments );
+	@FunctionalInterface
+	private interface DeploymentsSupplier {
+		Collection<Deployment> get() throws IOException;
 	}
 
 	private Stream<Deployment> recursivelyFilterDeployments( final Stream<Deployment> allDeployments, final Predicate<Deployment> deploymentPredicate ) {
@@ -99,6 +165,19 @@ public abstract class BaseMojoDeploymentPlugin
 				.flatMap( deployment -> Stream.of( deployment.toBuilder().enabled( deploymentPredicate.test( deployment ) ).build() ) );
 	}
 
+	/**
+	 * Starts the work that does not depend on the deployments, so that it runs while they are computed.
+	 */
+	protected void prepare(final Path basePath, final Path target) {
+	}
+
+	/**
+	 * Releases what {@link #prepare} started, when the goal stops before acting on the deployments. Part of it may not be
+	 * started yet, or still starting in the background.
+	 */
+	protected void cleanup() {
+	}
+
 	protected abstract Stream<ProjectComputer> getProjectComputers(FileSystemSourceReader fileSystemSourceReader);
 
 	protected Predicate<Deployment> filterDeployment() {
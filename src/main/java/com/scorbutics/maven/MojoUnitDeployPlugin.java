@@ -32,24 +32,26 @@ public class MojoUnitDeployPlugin extends BaseMojoDeploymentPlugin {
 	protected void actOnDeployments( final Path basePath, final Path target, final FileSystemSourceReader fileSystemSourceReader, final FileSystemTargetAction fileSystemTargetAction, final Collection<Deployment> allDeployments )
 			throws
 			MojoExecutionException {
-		final RecursiveDirectoryWalker directoryWalker = new RecursiveDirectoryWalker( fileSystemSourceReader );
-		SafeStream.of(SafeStream.of(allDeployments.stream())
-						.tryAccept( deployment ->
-								directoryWalker.copyFolderRecursive( fileSystemSourceReader, fileSystemTargetAction, deployment.getSource(), deployment.getTarget(), StandardCopyOption.REPLACE_EXISTING )
-						)
-						.failFast( e -> new MojoExecutionException("Error during unit-deploy operation: " + e.getMessage(), e ))
-						// Force terminal operation to trigger processing
-						.map(d -> d.getEnclosingTargetArchive(target))
-						.distinct())
-				.tryAccept( archivePath -> {
-                    if (skipDeployment) {
-                        getLog().info("Skipping redeployment of archive: " + archivePath);
-                        return;
-                    }
-					getLog().info("Triggering redeployment of archive: " + archivePath);
-					fileSystemTargetAction.touchFile(target.resolve(archivePath + ".dodeploy"));
-				} )
-				.failAfter(e -> new MojoExecutionException("Error during unit-deploy operation: " + e.getMessage(), e ));
+		// A single copier for all deployments: they share the same bounded pool of in-flight copies
+		try (final ParallelTreeCopier copier = new ParallelTreeCopier( fileSystemSourceReader, fileSystemTargetAction )) {
+			SafeStream.of(SafeStream.of(allDeployments.stream())
+							.tryAccept( deployment ->
+									copier.copy( deployment.getSource(), deployment.getTarget(), StandardCopyOption.REPLACE_EXISTING )
+							)
+							.failFast( e -> new MojoExecutionException("Error during unit-deploy operation: " + e.getMessage(), e ))
+							// Force terminal operation to trigger processing
+							.map(d -> d.getEnclosingTargetArchive(target))
+							.distinct())
+					.tryAccept( archivePath -> {
+						if (skipDeployment) {
+							getLog().info("Skipping redeployment of archive: " + archivePath);
+							return;
+						}
+						getLog().info("Triggering redeployment of archive: " + archivePath);
+						fileSystemTargetAction.touchFile(target.resolve(archivePath + ".dodeploy"));
+					} )
+					.failAfter(e -> new MojoExecutionException("Error during unit-deploy operation: " + e.getMessage(), e ));
+		}
 	}
 
 
@@ -3,6 +3,7 @@ package com.scorbutics.maven;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
 import java.util.stream.*;
 
@@ -14,13 +15,18 @@ import org.apache.maven.plugins.annotations.*;
 
 import com.scorbutics.maven.service.*;
 import com.scorbutics.maven.service.event.observer.*;
+import com.scorbutics.maven.service.event.watcher.build.*;
 import com.scorbutics.maven.service.event.watcher.compilation.*;
 import com.scorbutics.maven.service.event.watcher.files.*;
+import com.scorbutics.maven.service.event.watcher.files.observer.*;
+import com.scorbutics.maven.service.event.watcher.files.state.*;
 import com.scorbutics.maven.service.filesystem.*;
 import com.scorbutics.maven.service.filesystem.target.*;
+import com.scorbutics.maven.service.hotswap.*;
 import com.scorbutics.maven.service.packaging.*;
 import com.scorbutics.maven.service.filesystem.source.FileSystemSourceReader;
 import com.scorbutics.maven.util.*;
+import com.scorbutics.maven.util.pipeline.*;
 
 @Mojo(name = "watch-all", threadSafe = true, aggregator = true)
 public class MojoWatchAllPlugin
@@ -29,6 +35,13 @@ public class MojoWatchAllPlugin
 	@Parameter(property = "watcher")
 	private WatcherConfiguration watcher;
 
+	// Started by prepare, while the deployments are computed
+	private CompletableFuture<EventWatcher>                eventWatcher;
+	private CompletableFuture<Optional<BuildEventListener>> buildEventListener;
+	private CompletableFuture<Optional<DeploymentJournal>>  deploymentJournal;
+	private CompletableFuture<Optional<Integer>>            debugPort;
+	private CompletableFuture<CompletableFuture<Optional<Integer>>> portScan;
+
 	@Override
 	protected Stream<ProjectComputer> getProjectComputers( final FileSystemSourceReader fileSystemSourceReader ) {
 		return Stream.of(
@@ -50,13 +63,44 @@ public class MojoWatchAllPlugin
 	}
 
 	@Override
-	protected void actOnDeployments( final Path basePath, final Path target, final FileSystemSourceReader fileSystemSourceReader, final FileSystemTargetAction fileSystemTargetAction, final Collection<Deployment> allDeployments ) {
-		final EventWatcher eventWatcher;
-		try {
-			eventWatcher = new LocalFileSystemWatcher( watcher.getDebounce(), getLog());
-		} catch ( final IOException e ) {
-			throw new RuntimeException( e );
+	protected void prepare( final Path basePath, final Path target ) {
+		final StartupTimeline timeline = getTimeline();
+		eventWatcher = timeline.measureAsync( "event watcher", this::createEventWatcher );
+		buildEventListener = watcher.isBuildEventBridge()
+				? timeline.measureAsync( "build events", () -> setupBuildEventListener( getLog(), basePath ) )
+				: CompletableFuture.completedFuture( Optional.empty() );
+		deploymentJournal = watcher.isJournal()
+				? timeline.measureAsync( "journal", () -> openDeploymentJournal( getLog(), basePath ) )
+				: CompletableFuture.completedFuture( Optional.empty() );
+		if (!Integer.valueOf(-1).equals(watcher.getDebugPort())) {
+			// The port scan may take a while: watching starts right away, the debugger is attached once found
+			portScan = CompletableFuture.supplyAsync( () -> findDebugPort( getLog(), watcher.getDebugPort(), new JdwpEndpointCache( getProjectDirectory( basePath ), getLog() ), target ), timeline.getExecutor() );
+			debugPort = timeline.measureCompletion( "debug port", portScan.thenCompose( Function.identity() ) );
+		} else {
+			debugPort = CompletableFuture.completedFuture( Optional.empty() );
+		}
+	}
+
+	@Override
+	protected void cleanup() {
+		// Released as soon as started, without waiting for the ones still starting
+		if (eventWatcher != null) {
+			eventWatcher.thenAccept( EventWatcher::close );
+		}
+		if (buildEventListener != null) {
+			buildEventListener.thenAccept( listener -> listener.ifPresent( BuildEventListener::close ) );
+		}
+		if (deploymentJournal != null) {
+			deploymentJournal.thenAccept( journal -> journal.ifPresent( DeploymentJournal::close ) );
 		}
+		if (portScan != null) {
+			portScan.thenAccept( scan -> scan.cancel( true ) );
+		}
+	}
+
+	@Override
+	protected void actOnDeployments( final Path basePath, final Path target, final FileSystemSourceReader fileSystemSourceReader, final FileSystemTargetAction fileSystemTargetAction, final Collection<Deployment> allDeployments ) {
+		final StartupTimeline timeline = getTimeline();
 
 		final WatcherEventLogger eventLogger = WatcherEventLogger.builder()
 				.logger( getLog() )
@@ -64,62 +108,143 @@ public class MojoWatchAllPlugin
 				.showProgress( watcher.isShowProgress() )
 				.verbose( watcher.isVerbose() )
 				.build();
-		final RecursiveDirectoryWatcher directoryWatcher = new RecursiveDirectoryWatcher(watcher.getThreads(), eventWatcher, fileSystemSourceReader, getLog());
-		directoryWatcher.subscribeFunctional(eventLogger);
-
-		final CompilationEventWatcher compilationEventWatcher = new CompilationEventWatcher(getLog(), fileSystemSourceReader, allDeployments);
-		directoryWatcher.subscribeTechnical(compilationEventWatcher);
-		final FileLockCheckerAndRetryer fileLockCheckerAndRetryer = new FileLockCheckerAndRetryer(fileSystemTargetAction, fileSystemSourceReader, getLog());
-		final MavenMetaInfIntegration mavenMetaInfIntegration = new MavenMetaInfIntegration(fileSystemSourceReader, fileSystemTargetAction, fileLockCheckerAndRetryer, allDeployments, getLog());
-		compilationEventWatcher.subscribe( mavenMetaInfIntegration );
-
-		final HotDeployer hotDeployer = new HotDeployer(directoryWatcher, fileSystemTargetAction, basePath, target, getLog(), watcher.getTriggerRedeploymentDelay());
-
-        if (!Integer.valueOf(-1).equals(watcher.getDebugPort())) {
-            setupDebuggerConnectionWatcher(getLog(), watcher.getDebugPort()).ifPresent(watcherInstance -> {
-                watcherInstance.subscribe(eventLogger);
-                watcherInstance.subscribe(new DebuggerEventObserver() {
-                    @Override
-                    public void onDebuggerAttached(final DebuggerEvent event) {
-                        hotDeployer.disableWatching();
-                    }
-
-                    @Override
-                    public void onDebuggerDetached(final DebuggerEvent event) {
-                        hotDeployer.enableWatching();
-                    }
-                });
-            });
-        }
 
-        hotDeployer.registerAll(allDeployments);
+		// Closed in reverse order: each resource before the ones it uses, the pipeline stopping the remaining stages last
+		try ( final Pipeline pipeline = new Pipeline(watcher.isVerbose() ? getLog()::info : getLog()::debug);
+			  final EventWatcher eventWatcher = this.eventWatcher.join();
+			  final FileSystemEventObserverMailbox eventMailbox = new FileSystemEventObserverMailbox(eventLogger, watcher.getLoggerQueueCapacity(), watcher.getLoggerOverflowPolicy(), getLog());
+			  final RecursiveDirectoryWatcher directoryWatcher = new RecursiveDirectoryWatcher(watcher.getThreads(), eventWatcher, fileSystemSourceReader, getLog());
+			  final CompilationEventWatcher compilationEventWatcher = timeline.measure( "compilation watcher", () -> {
+				  final CompilationEventWatcher compilationWatcher = new CompilationEventWatcher(getLog(), fileSystemSourceReader, allDeployments);
+				  directoryWatcher.subscribeTechnical(compilationWatcher);
+				  final FileLockCheckerAndRetryer fileLockCheckerAndRetryer = new FileLockCheckerAndRetryer(fileSystemTargetAction, fileSystemSourceReader, getLog());
+				  compilationWatcher.subscribe( new MavenMetaInfIntegration(fileSystemSourceReader, fileSystemTargetAction, fileLockCheckerAndRetryer, allDeployments, getLog()) );
+				  return compilationWatcher;
+			  } );
+			  // Absent ones are null, skipped when closing
+			  final BuildEventListener listener = buildEventListener.join().orElse( null );
+			  final DeploymentJournal journal = deploymentJournal.join().orElse( null );
+			  final HotDeployer hotDeployer = new HotDeployer(directoryWatcher, fileSystemTargetAction, basePath, target, getLog(), watcher.getTriggerRedeploymentDelay(), watcher.getPipeline()) ) {
+			directoryWatcher.subscribeFunctional(eventMailbox);
+
+			if (listener != null) {
+				compilationEventWatcher.useBuildEvents(listener);
+				hotDeployer.holdDuringBuilds(listener);
+			}
+
+			// Still scanning while registering
+			final CompletableFuture<Optional<DebuggerConnectionWatcher>> debuggerWatcher = debugPort.thenApply(found -> found.map(port -> attachDebugger(port, hotDeployer, eventLogger)));
+			debuggerWatcher.exceptionally(e -> {
+				getLog().warn("Unable to find a JDWP debug port: " + e.getMessage());
+				return Optional.empty();
+			});
 
-		getLog().info("Watching...");
-		for (;;) {
 			try {
-				hotDeployer.waitEvent();
-			} catch (final InterruptedException e) {
-				getLog().info("Hot Deployment interrupted: " + e.getMessage());
-				break;
+				// Recovered changes are replayed by the registration
+				if (journal != null) {
+					hotDeployer.journalWith(journal);
+				}
+
+				timeline.measure( "registration", () -> hotDeployer.registerAll(allDeployments) );
+
+				// Ingest, filter and coalesce in the watcher, then classify, transfer and trigger in the deployer
+				pipeline.add(eventWatcher.getStages())
+						.add(hotDeployer.getStages());
+				pipeline.startReporting(watcher.getPipeline().getReportInterval());
+
+				timeline.print(getLog()::info);
+				getLog().info("Watching...");
+				for (;;) {
+					try {
+						hotDeployer.waitEvent();
+					} catch (final InterruptedException e) {
+						getLog().info("Hot Deployment interrupted: " + e.getMessage());
+						break;
+					}
+				}
+			} finally {
+				// A debug port found from now on is not attached anymore
+				debugPort.cancel( false );
+				if (portScan != null) {
+					portScan.thenAccept( scan -> scan.cancel( true ) );
+				}
+				debuggerWatcher.thenAccept( found -> found.ifPresent( DebuggerConnectionWatcher::stop ) );
 			}
 		}
 	}
 
+	private EventWatcher createEventWatcher() {
+		if (watcher.getBackend() == WatcherBackend.POLLING) {
+			return new PollingFileSystemWatcher( watcher.getDebounce(), watcher.getPipeline().getIngestQueueCapacity(), watcher.getPollingInterval(), getLog());
+		}
+		try {
+			return new LocalFileSystemWatcher( watcher.getDebounce(), watcher.getPipeline().getIngestQueueCapacity(), getLog());
+		} catch ( final IOException e ) {
+			throw new RuntimeException( e );
+		}
+	}
+
+    private Optional<BuildEventListener> setupBuildEventListener(final Log logger, final Path basePath) {
+        final BuildEventListener buildEventListener = new BuildEventListener(getProjectDirectory(basePath), logger);
+        try {
+            buildEventListener.start();
+        } catch (final IOException e) {
+            logger.warn("Unable to listen to build events, falling back on file events only: " + e.getMessage());
+            return Optional.empty();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(buildEventListener::close));
+        return Optional.of(buildEventListener);
+    }
+
+    private Optional<DeploymentJournal> openDeploymentJournal(final Log logger, final Path basePath) {
+        final DeploymentJournal journal;
+        try {
+            journal = DeploymentJournal.open(StateDirectory.forProject(getProjectDirectory(basePath)), logger);
+        } catch (final IOException e) {
+            logger.warn("Unable to open the deployment journal, interrupted changes will not be recovered: " + e.getMessage());
+            return Optional.empty();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+        return Optional.of(journal);
+    }
+
     private static DebuggerConnectionWatcher startWatcher(final Integer port, final Log logger) {
         final DebuggerConnectionWatcher watcher = DebuggerConnectionWatcher.builder()
                 .debugPort(port)
-                .checkIntervalMs(2000)
+                .checkIntervalMs(250)
                 .logger(logger)
                 .build();
         watcher.start();
         return watcher;
     }
 
-    private static Optional<DebuggerConnectionWatcher> setupDebuggerConnectionWatcher(final Log logger, final Integer configDebugPort) {
+    private DebuggerConnectionWatcher attachDebugger(final int port, final HotDeployer hotDeployer, final WatcherEventLogger eventLogger) {
+        if (watcher.isHotSwap()) {
+            getLog().info("HotSwap enabled through JDWP port " + port);
+            hotDeployer.hotSwapWith(HotSwapper.builder().debugPort(port).logger(getLog()).build());
+        }
+
+        final DebuggerConnectionWatcher watcherInstance = startWatcher(port, getLog());
+        watcherInstance.subscribe(eventLogger);
+        watcherInstance.subscribe(new DebuggerEventObserver() {
+            @Override
+            public void onDebuggerAttached(final DebuggerEvent event) {
+                hotDeployer.disableWatching();
+            }
+
+            @Override
+            public void onDebuggerDetached(final DebuggerEvent event) {
+                hotDeployer.enableWatching();
+            }
+        });
+        return watcherInstance;
+    }
+
+    private static CompletableFuture<Optional<Integer>> findDebugPort(final Log logger, final Integer configDebugPort, final JdwpEndpointCache endpointCache, final Path target) {
 
         if (configDebugPort != null) {
             // If a specific debug port is configured, use that
-            return Optional.of(startWatcher(configDebugPort, logger));
+            return CompletableFuture.completedFuture(Optional.of(configDebugPort));
         }
 
         final JdwpPortScanner scanner = JdwpPortScanner.builder()
@@ -128,7 +253,22 @@ public class MojoWatchAllPlugin
                 .scanRangeEnd(9000)
                 .build();
 
-        return scanner.findFirstJdwpPort()
-                .map(port -> startWatcher(port, logger));
+        // The debug port rarely changes between two runs: a single handshake is enough to confirm it
+        final Optional<Integer> cachedPort = endpointCache.get(target).filter(scanner::isJdwpPort);
+        if (cachedPort.isPresent()) {
+            logger.debug("Reusing JDWP port " + cachedPort.get() + " from the last run");
+            return CompletableFuture.completedFuture(cachedPort);
+        }
+
+        // Returned as is, so that cancelling it stops the scan
+        final CompletableFuture<Optional<Integer>> scan = scanner.findFirstJdwpPortAsync();
+        scan.thenAccept(port -> {
+            if (port.isPresent()) {
+                endpointCache.put(target, port.get());
+            } else {
+                endpointCache.remove(target);
+            }
+        });
+        return scan;
     }
-}
\ No newline at end of file
+}
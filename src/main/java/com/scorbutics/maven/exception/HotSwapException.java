@@ -0,0 +1,14 @@
+package com.scorbutics.maven.exception;
+
+public class HotSwapException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public HotSwapException(final String message) {
+        super(message);
+    }
+
+    public HotSwapException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
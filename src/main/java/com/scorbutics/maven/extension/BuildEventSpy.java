@@ -0,0 +1,103 @@
+package com.scorbutics.maven.extension;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+import javax.inject.*;
+
+import org.apache.maven.eventspy.*;
+import org.apache.maven.execution.*;
+
+import com.scorbutics.maven.service.event.watcher.build.*;
+import com.scorbutics.maven.util.*;
+
+/**
+ * Maven core extension publishing the build lifecycle to a running {@code watch-all} goal.
+ * <p>
+ * Enabled by declaring the plugin in {@code .mvn/extensions.xml}. At session start, the port published by the watcher
+ * in the project {@link StateDirectory} is read: if there is none, no watcher is running and the spy stays silent.
+ * Events are sent as loopback datagrams so that the build is never slowed down nor failed by the watcher.
+ */
+@Named("javaee-devtools-build-events")
+@Singleton
+public class BuildEventSpy extends AbstractEventSpy {
+
+	private DatagramSocket socket;
+	private SocketAddress  watcherAddress;
+
+	@Override
+	public void onEvent(final Object event) {
+		if (!(event instanceof ExecutionEvent)) {
+			return;
+		}
+
+		final ExecutionEvent executionEvent = (ExecutionEvent) event;
+		switch (executionEvent.getType()) {
+			case SessionStarted:
+				connect(executionEvent.getSession());
+				send(BuildEventType.SESSION_STARTED, null);
+				break;
+			case ProjectStarted:
+				send(BuildEventType.PROJECT_STARTED, executionEvent.getProject().getBasedir());
+				break;
+			case ProjectSucceeded:
+				send(BuildEventType.PROJECT_SUCCEEDED, executionEvent.getProject().getBasedir());
+				break;
+			case ProjectFailed:
+				send(BuildEventType.PROJECT_FAILED, executionEvent.getProject().getBasedir());
+				break;
+			case SessionEnded:
+				send(BuildEventType.SESSION_ENDED, null);
+				disconnect();
+				break;
+			default:
+				break;
+		}
+	}
+
+	@Override
+	public void close() {
+		disconnect();
+	}
+
+	private void connect(final MavenSession session) {
+		final File projectDirectory = session.getRequest().getMultiModuleProjectDirectory() != null
+				? session.getRequest().getMultiModuleProjectDirectory()
+				: new File(session.getExecutionRootDirectory());
+		final Path portFile = StateDirectory.forProject(projectDirectory.toPath()).resolve(BuildEventListener.PORT_FILE);
+		try {
+			if (!Files.exists(portFile)) {
+				return;
+			}
+			final int port = Integer.parseInt(new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8).trim());
+			watcherAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+			socket = new DatagramSocket();
+		} catch (final IOException | NumberFormatException e) {
+			// No reachable watcher: the build goes on without publishing anything
+			disconnect();
+		}
+	}
+
+	private void send(final BuildEventType type, final File projectDirectory) {
+		if (socket == null) {
+			return;
+		}
+		final String message = projectDirectory == null ? type.name() : type.name() + BuildEventListener.FIELD_SEPARATOR + projectDirectory.getAbsolutePath();
+		final byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+		try {
+			socket.send(new DatagramPacket(payload, payload.length, watcherAddress));
+		} catch (final IOException e) {
+			// Best effort: the watcher falls back on its watchdog if events are lost
+		}
+	}
+
+	private void disconnect() {
+		if (socket != null) {
+			socket.close();
+			socket = null;
+		}
+		watcherAddress = null;
+	}
+}
@@ -0,0 +1,13 @@
+package com.scorbutics.maven.model;
+
+/**
+ * What to do with a notification for an asynchronous observer whose mailbox is full.
+ */
+public enum OverflowPolicy {
+	// Wait for the observer to catch up: nothing is lost, the notifying thread is slowed down
+	BLOCK,
+	// Discard the oldest pending notification to make room
+	DROP_OLDEST,
+	// Discard the notification being posted
+	DROP_NEWEST
+}
@@ -0,0 +1,29 @@
+package com.scorbutics.maven.model;
+
+import org.apache.maven.plugins.annotations.*;
+
+import lombok.*;
+
+@Data
+public class PipelineConfiguration {
+
+	// File events waiting to be filtered and coalesced
+	@Parameter(property = "ingestQueueCapacity")
+	private int ingestQueueCapacity = 32768;
+
+	// File changes waiting in each of the classify, transfer and trigger stages
+	@Parameter(property = "queueCapacity")
+	private int queueCapacity = 4096;
+
+	// Workers resolving the deployment of each change and comparing the class files
+	@Parameter(property = "classifyThreads")
+	private int classifyThreads = 1;
+
+	// Workers copying the changes to the target
+	@Parameter(property = "transferThreads")
+	private int transferThreads = 2;
+
+	// Interval in milliseconds between two reports of the stage metrics, 0 to disable them
+	@Parameter(property = "reportInterval")
+	private int reportInterval = 30000;
+}
@@ -10,4 +10,8 @@ public class StructureConfiguration {
 	@NonNull
 	@Parameter(property = "autoDiscovery")
 	private AutoDiscoveryConfiguration autoDiscovery = new AutoDiscoveryConfiguration();
+
+	// Reuse the deployments discovered by the previous run while the reactor and the target directories are unchanged
+	@Parameter(property = "cache")
+	private boolean cache = true;
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.scorbutics.maven.model;
+
+public enum WatcherBackend {
+	// Change notifications of the operating system
+	NATIVE,
+	// Periodic snapshots of the watched directories, for mounts and shares on which the native notifications are not delivered
+	POLLING
+}
@@ -26,4 +26,37 @@ public class WatcherConfiguration {
     // If set to -1, disable debugger watcher
     @Parameter(property = "debugPort")
     private Integer debugPort = null;
+
+    // Listen to the build events published by the plugin Maven extension, when declared in .mvn/extensions.xml
+    @Parameter(property = "buildEventBridge")
+    private boolean buildEventBridge = true;
+
+    // Redefine changed classes through the JDWP port instead of redeploying their archive, when possible
+    @Parameter(property = "hotSwap")
+    private boolean hotSwap = false;
+
+    // POLLING when the sources are on a bind mount or a network share that delivers no native file events
+    @Parameter(property = "backend")
+    private WatcherBackend backend = WatcherBackend.NATIVE;
+
+    // Shortest interval between two scans of a directory with the POLLING backend
+    @Parameter(property = "pollingInterval")
+    private int pollingInterval = 500;
+
+    // Pending file events of the event logger, which runs on its own thread so that it never delays the deployment
+    @Parameter(property = "loggerQueueCapacity")
+    private int loggerQueueCapacity = 4096;
+
+    // What to do with the file events of the event logger once its queue is full
+    @Parameter(property = "loggerOverflowPolicy")
+    private OverflowPolicy loggerOverflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+    // Journal the file changes until deployed, so that the ones interrupted by a crash are applied again on the next start
+    @Parameter(property = "journal")
+    private boolean journal = true;
+
+    // Queues and workers of the deployment pipeline stages
+    @NonNull
+    @Parameter(property = "pipeline")
+    private PipelineConfiguration pipeline = new PipelineConfiguration();
 }
\ No newline at end of file
@@ -1,24 +1,97 @@
 package com.scorbutics.maven.model.packaging;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
 
 import javax.xml.bind.*;
+import javax.xml.parsers.*;
 
 import org.apache.maven.model.*;
-import org.apache.maven.plugin.logging.*;
 import org.apache.maven.project.*;
+import org.codehaus.plexus.util.xml.*;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
+/**
+ * Binds the {@code <configuration>} of a packaging plugin to a JAXB annotated class.
+ * <p>
+ * JAXB contexts are costly to create but thread-safe, so one is kept per class and shared by all the projects, which
+ * may be read concurrently. The configuration tree read by Maven is converted to DOM nodes and bound directly.
+ */
 public class PluginConfigurationReader {
+
+	private static final Map<Class<?>, JAXBContext> CONTEXTS = new ConcurrentHashMap<>();
+
+	private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS = ThreadLocal.withInitial(() -> {
+		final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		try {
+			return factory.newDocumentBuilder();
+		} catch (final ParserConfigurationException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
 	public static <T> T fromPluginAndProject( final Class<T> clazz, final Plugin plugin, final MavenProject project ) throws RuntimeException {
 		try {
-			final JAXBContext jaxbContext = JAXBContext.newInstance(clazz);
-			final Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-			@SuppressWarnings( "unchecked" )
-			final T configuration = (T) unmarshaller.unmarshal(new ByteArrayInputStream(plugin.getConfiguration().toString().getBytes()));
-			// Add a virtual root module representing the project itself
-			return configuration;
+			// Unmarshallers are not thread-safe, but cheap to create from a context
+			final Unmarshaller unmarshaller = getContext(clazz).createUnmarshaller();
+			final Object configuration = plugin.getConfiguration();
+			if (configuration instanceof Xpp3Dom) {
+				return unmarshaller.unmarshal(toElement((Xpp3Dom) configuration), clazz).getValue();
+			}
+			return clazz.cast(unmarshaller.unmarshal(new ByteArrayInputStream(configuration.toString().getBytes(StandardCharsets.UTF_8))));
 		} catch ( final Exception e ) {
 			throw new RuntimeException("Error while unmarshalling plugin configuration for project '" + project.getArtifactId() + "' using class '" + clazz + "' with packaging " + project.getPackaging(), e);
 		}
 	}
-}
\ No newline at end of file
+
+	private static JAXBContext getContext(final Class<?> clazz) throws JAXBException {
+		try {
+			return CONTEXTS.computeIfAbsent(clazz, key -> {
+				// May be called from a pool thread, whose context class loader does not see the plugin realm
+				final Thread thread = Thread.currentThread();
+				final ClassLoader contextClassLoader = thread.getContextClassLoader();
+				thread.setContextClassLoader(key.getClassLoader());
+				try {
+					return JAXBContext.newInstance(key);
+				} catch (final JAXBException e) {
+					throw new IllegalStateException(e);
+				} finally {
+					thread.setContextClassLoader(contextClassLoader);
+				}
+			});
+		} catch (final IllegalStateException e) {
+			if (e.getCause() instanceof JAXBException) {
+				throw (JAXBException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	static Element toElement(final Xpp3Dom dom) {
+		final Document document = DOCUMENT_BUILDERS.get().newDocument();
+		final Element root = toElement(document, dom);
+		document.appendChild(root);
+		return root;
+	}
+
+	private static Element toElement(final Document document, final Xpp3Dom dom) {
+		final Element element = document.createElementNS(null, dom.getName());
+		for (final String attribute : dom.getAttributeNames()) {
+			// Namespace declarations and prefixed attributes are never bound
+			if (!attribute.equals("xmlns") && attribute.indexOf(':') < 0) {
+				element.setAttributeNS(null, attribute, dom.getAttribute(attribute));
+			}
+		}
+		if (dom.getValue() != null) {
+			element.appendChild(document.createTextNode(dom.getValue()));
+		}
+		for (final Xpp3Dom child : dom.getChildren()) {
+			element.appendChild(toElement(document, child));
+		}
+		return element;
+	}
+}
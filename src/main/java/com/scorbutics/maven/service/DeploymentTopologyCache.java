@@ -0,0 +1,198 @@
+package com.scorbutics.maven.service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.logging.*;
+import org.apache.maven.project.*;
+
+import com.scorbutics.maven.exception.*;
+import com.scorbutics.maven.model.*;
+import com.scorbutics.maven.model.packaging.*;
+import com.scorbutics.maven.service.filesystem.*;
+import com.scorbutics.maven.service.filesystem.target.*;
+import com.scorbutics.maven.service.packaging.ProjectFileStructureAnalyzer;
+
+/**
+ * Keeps the deployments computed by the previous run, so that a start with an unchanged reactor and target skips the
+ * plugin configurations parsing and the target directories matching.
+ * <p>
+ * The deployments are stored with a fingerprint of everything they are computed from: the build of the plugin, the POM
+ * files and models of the reactor projects, their packaging plugin configurations, the manual deployments and the
+ * directories of the target, down to the depth at which deployed modules are looked for. Any difference computes the
+ * deployments again.
+ */
+public class DeploymentTopologyCache {
+
+	private static final int FORMAT_VERSION = 1;
+
+	private final Path   cacheFile;
+	private final String pluginVersion;
+	private final Log    logger;
+
+	/**
+	 * @param name distinguishes the deployments computed differently, for instance by each goal
+	 * @param pluginVersion identifies the build of the plugin, whose deployments computation may change with it
+	 */
+	public DeploymentTopologyCache(final Path stateDirectory, final String name, final String pluginVersion, final Log logger) {
+		this.cacheFile = stateDirectory.resolve("deployments-" + name + ".cache");
+		this.pluginVersion = pluginVersion;
+		this.logger = logger;
+	}
+
+	/**
+	 * Returns the fingerprint of the deployments computed from these inputs.
+	 *
+	 * @param maxDeployedModulesDepthCheck the depth down to which the deployed modules are matched in {@code target}
+	 */
+	public String fingerprint(final List<MavenProject> projects, final List<Deployment> manualDeployments, final FileSystemTargetAction fileSystemTargetAction, final Path target, final int maxDeployedModulesDepthCheck, final Object... parameters) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		final StringBuilder inputs = new StringBuilder();
+		// The modules are matched against the directories one level below the maximum depth
+		final int listedLevels = ProjectFileStructureAnalyzer.effectiveMaxDepth(maxDeployedModulesDepthCheck) + 1;
+		inputs.append(FORMAT_VERSION).append('\n').append(pluginVersion).append('\n').append(target).append('\n').append(listedLevels).append('\n');
+		Arrays.stream(parameters).forEach(parameter -> inputs.append(parameter).append('\n'));
+		if (manualDeployments != null) {
+			manualDeployments.forEach(deployment -> inputs.append(deployment).append('\n'));
+		}
+		projects.forEach(project -> appendProject(inputs, project));
+
+		try {
+			// Only the directories above the walk depth are reported as such
+			new RecursiveDirectoryWalker(fileSystemTargetAction).readRecursive(target, listedLevels + 1, null)
+					.map(Path::toString)
+					.sorted()
+					.forEach(directory -> inputs.append(directory).append('\n'));
+		} catch (final FileWatcherException e) {
+			// Never matches a stored fingerprint
+			inputs.append(UUID.randomUUID());
+		}
+
+		final StringBuilder fingerprint = new StringBuilder();
+		for (final byte b : digest.digest(inputs.toString().getBytes(StandardCharsets.UTF_8))) {
+			fingerprint.append(String.format("%02x", b));
+		}
+		return fingerprint.toString();
+	}
+
+	private static void appendProject(final StringBuilder inputs, final MavenProject project) {
+		inputs.append(project.getId()).append(' ').append(project.getPackaging()).append(' ').append(project.getBasedir()).append('\n');
+		final File pomFile = project.getFile();
+		if (pomFile != null) {
+			inputs.append(pomFile).append(' ').append(pomFile.lastModified()).append(' ').append(pomFile.length()).append('\n');
+		}
+		final Build build = project.getBuild();
+		if (build != null) {
+			inputs.append(build.getFinalName()).append(' ').append(build.getDirectory()).append(' ').append(build.getOutputDirectory()).append('\n');
+		}
+		project.getModules().forEach(module -> inputs.append("module ").append(module).append('\n'));
+		project.getBuildPlugins().forEach(plugin -> inputs.append(plugin.getKey()).append(':').append(plugin.getVersion()).append('\n')
+				.append(plugin.getConfiguration()).append('\n'));
+	}
+
+	/**
+	 * Returns the deployments stored for {@code fingerprint}, if any.
+	 */
+	public Optional<Collection<Deployment>> get(final String fingerprint) {
+		if (!Files.exists(cacheFile)) {
+			return Optional.empty();
+		}
+		try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+			if (input.readInt() != FORMAT_VERSION || !input.readUTF().equals(fingerprint)) {
+				return Optional.empty();
+			}
+			return Optional.of(readDeployments(input));
+		} catch (final IOException | RuntimeException e) {
+			logger.debug("Unable to read deployment cache " + cacheFile + ": " + e.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	public void put(final String fingerprint, final Collection<Deployment> deployments) {
+		try {
+			Files.createDirectories(cacheFile.getParent());
+			// Written aside then moved, so that a concurrent start never reads a partial file
+			final Path temporaryFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+			try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+				output.writeInt(FORMAT_VERSION);
+				output.writeUTF(fingerprint);
+				writeDeployments(output, deployments);
+			}
+			Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException e) {
+			logger.debug("Unable to write deployment cache " + cacheFile + ": " + e.getMessage());
+		}
+	}
+
+	/*
+	 * Deployment is Serializable, but its Path fields are not and its tree fields are transient: it is written field by field
+	 */
+	private static void writeDeployments(final DataOutputStream output, final Collection<Deployment> deployments) throws IOException {
+		output.writeInt(deployments.size());
+		for (final Deployment deployment : deployments) {
+			writePath(output, deployment.getSource());
+			writePath(output, deployment.getTarget());
+			writePath(output, deployment.getBase());
+			writePath(output, deployment.getArchive());
+			output.writeBoolean(deployment.isEnabled());
+			output.writeUTF(deployment.getPackaging() == null ? "" : deployment.getPackaging().name());
+			output.writeBoolean(deployment.isUnpack());
+			output.writeBoolean(deployment.isRedeployOnChange());
+			output.writeBoolean(deployment.isUseSourceFilesystemOnly());
+			output.writeInt(deployment.getDepth());
+			output.writeBoolean(deployment.isComputed());
+			output.writeInt(deployment.getChildren().size());
+			for (final Map.Entry<Path, List<Deployment>> children : deployment.getChildren().entrySet()) {
+				writePath(output, children.getKey());
+				writeDeployments(output, children.getValue());
+			}
+		}
+	}
+
+	private static List<Deployment> readDeployments(final DataInputStream input) throws IOException {
+		final int count = input.readInt();
+		final List<Deployment> deployments = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final Deployment.DeploymentBuilder deployment = Deployment.builder()
+					.source(readPath(input))
+					.target(readPath(input))
+					.base(readPath(input))
+					.archive(readPath(input))
+					.enabled(input.readBoolean());
+			final String packaging = input.readUTF();
+			deployment.packaging(packaging.isEmpty() ? null : Packaging.valueOf(packaging))
+					.unpack(input.readBoolean())
+					.redeployOnChange(input.readBoolean())
+					.useSourceFilesystemOnly(input.readBoolean())
+					.depth(input.readInt())
+					.computed(input.readBoolean());
+			final int childrenCount = input.readInt();
+			final Map<Path, List<Deployment>> children = new HashMap<>();
+			for (int j = 0; j < childrenCount; j++) {
+				children.put(readPath(input), readDeployments(input));
+			}
+			deployments.add(deployment.children(children).build());
+		}
+		return deployments;
+	}
+
+	private static void writePath(final DataOutputStream output, final Path path) throws IOException {
+		output.writeBoolean(path != null);
+		if (path != null) {
+			output.writeUTF(path.toString());
+		}
+	}
+
+	private static Path readPath(final DataInputStream input) throws IOException {
+		return input.readBoolean() ? Paths.get(input.readUTF()) : null;
+	}
+}
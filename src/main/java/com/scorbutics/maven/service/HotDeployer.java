@@ -1,33 +1,69 @@
 package com.scorbutics.maven.service;
 
 import com.scorbutics.maven.model.Deployment;
+import com.scorbutics.maven.model.PipelineConfiguration;
+import com.scorbutics.maven.service.event.watcher.build.*;
 import com.scorbutics.maven.service.event.watcher.files.*;
 import com.scorbutics.maven.service.event.watcher.files.observer.*;
+import com.scorbutics.maven.service.event.watcher.files.state.*;
 import com.scorbutics.maven.service.filesystem.*;
 
+import com.scorbutics.maven.service.hotswap.*;
+
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.maven.plugin.logging.Log;
 import com.scorbutics.maven.exception.FileWatcherException;
+import com.scorbutics.maven.exception.HotSwapException;
 import com.scorbutics.maven.service.filesystem.target.FileSystemTargetAction;
 import com.scorbutics.maven.util.*;
+import com.scorbutics.maven.util.pipeline.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import lombok.*;
 
+/**
+ * Applies the file events to the deployments, through the last stages of the deployment pipeline:
+ * <ol>
+ *     <li>classify: resolves the deployment of the changed path, and whether its archive must be redeployed or its classes hot swapped</li>
+ *     <li>transfer: copies or deletes the path in the target</li>
+ *     <li>trigger: schedules the redeployment of the changed archives</li>
+ * </ol>
+ * The changes of a same path always go through the same classify and transfer worker, so that they are applied in order.
+ * <p>
+ * With a {@link DeploymentJournal}, a change is journaled when it enters the pipeline, and completed once transferred
+ * and its archive redeployed: the changes left in doubt by a crash are applied again on the next start.
+ */
 @RequiredArgsConstructor
-public class HotDeployer implements FileSystemEventObserver {
+public class HotDeployer implements FileSystemEventObserver, BuildEventObserver, AutoCloseable {
 
+    /**
+     * Suspends watching: file events are held, merged per path, until {@link #enableWatching()}.
+     */
     public void disableWatching() {
         watchingDisabled = true;
+        logger.info("File changes will be applied once the debugger detaches");
     }
 
+    /**
+     * Resumes watching, applying the file events held meanwhile as a single batch.
+     */
     public void enableWatching() {
         watchingDisabled = false;
+        final List<CoalescedEvent> events = debuggerHeldEvents.releaseAll();
+        final long changes = events.stream().filter(event -> !event.isNoOp()).count();
+        if (changes > 0) {
+            logger.info("Applying " + changes + " file changes made while the debugger was attached");
+        }
+        replay(events);
     }
 
     @Builder
@@ -37,6 +73,25 @@ public class HotDeployer implements FileSystemEventObserver {
 		Path       path;
 	}
 
+	/**
+	 * A file change moving through the pipeline stages, completed by each of them.
+	 */
+	@Builder(toBuilder = true)
+	@Value
+	static class FileChange {
+		Path               fullPath;
+		WatchEvent.Kind<?> kind;
+		Deployment         deployment;
+		// File name of the archive to redeploy once transferred, if any
+		Path               archive;
+		// Whether the archive may take the change through a hot swap instead of a redeployment
+		boolean            hotSwap;
+		// Sequence number in the deployment journal, 0 if not journaled
+		long               sequence;
+		// Left in doubt by a previous run: it may be transferred already, but not redeployed
+		boolean            recovered;
+	}
+
 	@FunctionalInterface
 	interface FileEventAction {
 		void apply(final Path directory, final Path path, FileLockCheckerAndRetryer fileLockCheckerAndRetryer, FileSystemCommonActions fsActions) throws IOException, InterruptedException;
@@ -49,16 +104,72 @@ public class HotDeployer implements FileSystemEventObserver {
     private final Path targetBasePath;
     private final Log             logger;
     private final int redeployDelayMs;
+    private final PipelineConfiguration pipelineConfiguration;
     private TimedTask<Path> redeployTimer;
-    private boolean watchingDisabled = false;
+    private PipelineStage<FileChange> classifyStage;
+    private PipelineStage<FileChange> transferStage;
+    private PipelineStage<Path>       triggerStage;
+    // New subtrees are copied by pools shared by all the transfer workers, per target file system
+    private ParallelTreeCopier targetCopier;
+    private ParallelTreeCopier sourceCopier;
+    private volatile boolean watchingDisabled = false;
+    private BuildEventListener buildEventListener;
+    private final HeldEventBuffer heldEvents = new HeldEventBuffer();
+    private final HeldEventBuffer debuggerHeldEvents = new HeldEventBuffer();
+    private volatile HotSwapper hotSwapper;
+    // Per archive: the transferred class files to hot swap, or a flag if some transferred change requires a real redeployment
+    private final Map<Path, Set<Path>> pendingHotSwaps = new ConcurrentHashMap<>();
+    private final Set<Path> pendingRedeployments = ConcurrentHashMap.newKeySet();
+    private DeploymentJournal journal;
+    // Per archive: the journaled changes transferred, completed once the archive is redeployed
+    private final Map<Path, Set<Long>> awaitingRedeployment = new ConcurrentHashMap<>();
+
+    /**
+     * Pushes changed class files to the server through JDWP instead of redeploying their archive.
+     * The archive is still redeployed if any other kind of change happened or if the server rejects the new classes.
+     */
+    public void hotSwapWith(final HotSwapper hotSwapper) {
+        this.hotSwapper = hotSwapper;
+    }
+
+    /**
+     * Holds the file events of the projects being built until their build is over, instead of copying
+     * files that are still being written.
+     */
+    public void holdDuringBuilds(final BuildEventListener buildEventListener) {
+        this.buildEventListener = buildEventListener;
+        buildEventListener.subscribe(this);
+    }
+
+    /**
+     * Journals the changes until they are deployed. The changes left in doubt by the previous run are applied again
+     * by {@link #registerAll(Collection)}, before watching starts.
+     */
+    public void journalWith(final DeploymentJournal journal) {
+        this.journal = journal;
+    }
 
     public void registerAll(final Collection<Deployment> hotDeployments) {
 
-        pathsToDeploymentMap = hotDeployments.stream()
+        final List<Deployment> enabledDeployments = hotDeployments.stream()
 				.flatMap( Deployment::flatten )
 				.filter( Deployment::isEnabled )
-                .flatMap(deployment ->
-                        directoryWatcher.registerRoots(deployment.getSource(), deployment.getBase(), deployment.computeDirectSubtrees())
+				.collect( Collectors.toList() );
+
+		// All deployments are registered at once, sharing the same registration workers
+		final List<SafeStream<Path, IOException>> registrations = directoryWatcher.registerRoots( enabledDeployments.stream()
+				.map( deployment -> WatchedRoot.builder()
+						.sourcePath( deployment.getSource() )
+						.basePath( deployment.getBase() )
+						.excludedSubtrees( deployment.computeDirectSubtrees() )
+						.build() )
+				.collect( Collectors.toList() ) );
+
+        pathsToDeploymentMap = IntStream.range( 0, enabledDeployments.size() )
+				.boxed()
+                .flatMap(index -> {
+					final Deployment deployment = enabledDeployments.get( index );
+					return registrations.get( index )
 							// Check for all exceptions during the watchers setup
 							.failAfter(e ->
 								new FileWatcherException( "Error during deployment '" + deployment + "' while watching the filesystem: ", e )
@@ -66,8 +177,8 @@ public class HotDeployer implements FileSystemEventObserver {
 							.map(result -> {
 								final Path path = basePath.relativize(result);
 								return Pair.of(path, DeploymentPath.builder().deployment(deployment).path(path).build());
-							})
-                )
+							});
+				})
                 .collect(Collectors.toMap(
 						Pair::getKey,
 						Pair::getValue,
@@ -75,16 +186,217 @@ public class HotDeployer implements FileSystemEventObserver {
 							throw new FileWatcherException("Multiple deployments configured for the same path: " + deployment1 + " and " + deployment2);
 						}));
 
-		this.directoryWatcher.subscribeFunctional(this);
-        this.directoryWatcher.startConsumerThread();
         if (redeployDelayMs > 0) {
             this.redeployTimer = new TimedTask<>(Math.min(Math.max(redeployDelayMs, 500), 10000), this::handleThreadedDeployement);
         }
+		startStages();
+		recoverJournal();
+
+		this.directoryWatcher.subscribeFunctional(this);
+        this.directoryWatcher.startConsumerThread();
     }
 
+	private void startStages() {
+		this.targetCopier = new ParallelTreeCopier(this.directoryWatcher.getSourceReader(), this.fileSystemTargetAction);
+		this.sourceCopier = new ParallelTreeCopier(this.directoryWatcher.getSourceReader(), this.directoryWatcher.getSourceReader());
+		this.triggerStage = PipelineStage.<Path>builder()
+				.name("trigger")
+				.capacity(pipelineConfiguration.getQueueCapacity())
+				.workers(1)
+				.handler(archive -> redeployTimer.overrideAndTrigger(archive))
+				.logger(logger)
+				.build();
+		this.transferStage = PipelineStage.<FileChange>builder()
+				.name("transfer")
+				.capacity(pipelineConfiguration.getQueueCapacity())
+				.workers(Math.max(pipelineConfiguration.getTransferThreads(), 1))
+				.partitioner(FileChange::getFullPath)
+				.handler(this::transfer)
+				.logger(logger)
+				.build();
+		this.classifyStage = PipelineStage.<FileChange>builder()
+				.name("classify")
+				.capacity(pipelineConfiguration.getQueueCapacity())
+				.workers(Math.max(pipelineConfiguration.getClassifyThreads(), 1))
+				.partitioner(FileChange::getFullPath)
+				.handler(this::classify)
+				.logger(logger)
+				.build();
+		getStages().forEach(PipelineStage::start);
+	}
+
+	private void recoverJournal() {
+		if (journal == null) {
+			return;
+		}
+		final Map<Long, PathEvent> pending = journal.getPending();
+		if (pending.isEmpty()) {
+			return;
+		}
+		logger.info("Applying again " + pending.size() + " file changes interrupted by the previous run");
+		pending.forEach((sequence, event) -> dispatch(event.path, event.kind, true, Collections.singletonList(sequence)));
+	}
+
+	/**
+	 * Returns the stages of the changes once dispatched to this deployer, in processing order.
+	 */
+	public List<PipelineStage<?>> getStages() {
+		return Arrays.asList(classifyStage, transferStage, triggerStage);
+	}
+
 	@Override
     public void onFileCreateEvent(final Path fullPath) {
-		doOnEvent( fullPath, (final Path absoluteTargetDirectory, final Path absoluteTargetPath, final FileLockCheckerAndRetryer fileLockCheckerAndRetryer, final FileSystemCommonActions fsActions) -> {
+		dispatch(fullPath, StandardWatchEventKinds.ENTRY_CREATE, false, Collections.emptyList());
+    }
+
+    public void onFileModifyEvent(final Path fullPath) {
+		dispatch(fullPath, StandardWatchEventKinds.ENTRY_MODIFY, false, Collections.emptyList());
+    }
+
+	@Override
+	public void onFileDeleteEvent(final Path fullPath) {
+		dispatch(fullPath, StandardWatchEventKinds.ENTRY_DELETE, false, Collections.emptyList());
+	}
+
+	@Override
+	public void onSubtreeCreateEvent(final Path rootPath) {
+		dispatch(rootPath, ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE, false, Collections.emptyList());
+	}
+
+	@Override
+	public void onProjectFinished(final BuildEvent event) {
+		replay(heldEvents.release(event.getProjectDirectory()));
+	}
+
+	@Override
+	public void onSessionEnded(final BuildEvent event) {
+		replay(heldEvents.releaseAll());
+	}
+
+	/*
+	 * Sends an event down the pipeline unless it must be held for now. The event is journaled first, held or not, and
+	 * only then are the journaled events it replaces completed: a crash at any point loses nothing.
+	 */
+	private void dispatch(final Path fullPath, final WatchEvent.Kind<?> kind, final boolean recovered, final List<Long> replacedSequences) {
+		final long sequence = journal == null ? 0 : journal.accepted(fullPath, kind);
+		replacedSequences.forEach(this::complete);
+		if (holdIfDebugging(fullPath, kind, sequence, recovered) || holdIfBuilding(fullPath, kind, sequence, recovered)) {
+			return;
+		}
+		classifyStage.submit(FileChange.builder()
+				.fullPath(fullPath)
+				.kind(kind)
+				.sequence(sequence)
+				.recovered(recovered)
+				.build());
+	}
+
+	private boolean holdIfDebugging(final Path fullPath, final WatchEvent.Kind<?> kind, final long sequence, final boolean recovered) {
+		if (!watchingDisabled) {
+			return false;
+		}
+		debuggerHeldEvents.hold(fullPath, kind, sequence, recovered);
+		if (!watchingDisabled) {
+			// The debugger detached meanwhile and the release may have missed this event
+			replay(debuggerHeldEvents.releaseAll());
+		}
+		return true;
+	}
+
+	private boolean holdIfBuilding(final Path fullPath, final WatchEvent.Kind<?> kind, final long sequence, final boolean recovered) {
+		if (buildEventListener == null || !buildEventListener.isBuilding(fullPath)) {
+			return false;
+		}
+		heldEvents.hold(fullPath, kind, sequence, recovered);
+		if (!buildEventListener.isBuilding(fullPath)) {
+			// The project build ended meanwhile and its release may have missed this event
+			replay(heldEvents.release(fullPath));
+		}
+		return true;
+	}
+
+	private void replay(final List<CoalescedEvent> events) {
+		if (events.isEmpty()) {
+			return;
+		}
+		logger.debug("Releasing " + events.size() + " held file events");
+		// Events go through dispatch again: they may have to be held for another reason meanwhile.
+		// The whole batch falls within the redeployment delay: each archive is redeployed once.
+		events.forEach(event -> {
+			if (event.isNoOp()) {
+				// Merged into nothing: there is nothing left to apply
+				event.getSequences().forEach(this::complete);
+			} else {
+				dispatch(event.getPath(), event.getKind(), event.isRecovered(), event.getSequences());
+			}
+		});
+	}
+
+	private void classify(final FileChange change) {
+		final Path fullPath = change.getFullPath();
+		final Optional<Deployment> optionalDeployment = computeDeploymentForPath(fullPath);
+		if (!optionalDeployment.isPresent()) {
+			logger.warn("Discarding event on '" + basePath.relativize(fullPath) + "' because no deployment matches this path.");
+			complete(change.getSequence());
+			return;
+		}
+		final Deployment deployment = optionalDeployment.get();
+		final FileChange.FileChangeBuilder classified = change.toBuilder().deployment(deployment);
+		final Path archive = computeArchiveToRedeploy(deployment, fullPath);
+		if (archive != null) {
+			// Only changed files may be hot swapped: the classes of a new tree are not loaded yet.
+			// A recovered change may be in the target already, compared equal, and yet never redeployed.
+			final boolean hotSwappable = !change.isRecovered() && (change.getKind() == StandardWatchEventKinds.ENTRY_CREATE || change.getKind() == StandardWatchEventKinds.ENTRY_MODIFY);
+			final ClassChange classChange = hotSwappable && fullPath.getFileName().toString().endsWith(".class")
+					? classifyClassChange(deployment, fullPath)
+					: ClassChange.STRUCTURAL;
+			if (classChange == ClassChange.IDENTICAL) {
+				logger.debug("No bytecode change in '" + basePath.relativize(fullPath) + "', redeployment not needed");
+			} else {
+				classified.archive(archive).hotSwap(classChange == ClassChange.BODY_ONLY && hotSwapper != null);
+			}
+		}
+		transferStage.submit(classified.build());
+	}
+
+	private void transfer(final FileChange change) {
+		final Path fullPath = change.getFullPath();
+		final boolean transferred;
+		if (change.getKind() == StandardWatchEventKinds.ENTRY_DELETE) {
+			transferred = applyDeleteEvent(change.getDeployment(), fullPath);
+		} else if (change.getKind() == ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE) {
+			transferred = applySubtreeCreateEvent(change.getDeployment(), fullPath);
+		} else {
+			transferred = applyCreateEvent(change.getDeployment(), fullPath);
+		}
+		if (!transferred) {
+			// Nothing new to load in the archive: the change stays in the journal, applied again by the next run
+			return;
+		}
+		if (change.getArchive() == null) {
+			complete(change.getSequence());
+			return;
+		}
+		// Recorded once in the target only, before the sequence: a redeployment never completes a change it did not load
+		if (change.isHotSwap()) {
+			pendingHotSwaps.computeIfAbsent(change.getArchive(), k -> ConcurrentHashMap.newKeySet()).add(fullPath);
+		} else {
+			pendingRedeployments.add(change.getArchive());
+		}
+		if (change.getSequence() != 0) {
+			awaitingRedeployment.computeIfAbsent(change.getArchive(), k -> ConcurrentHashMap.newKeySet()).add(change.getSequence());
+		}
+		triggerStage.submit(change.getArchive());
+	}
+
+	private void complete(final long sequence) {
+		if (sequence != 0) {
+			journal.completed(sequence);
+		}
+	}
+
+    private boolean applyCreateEvent(final Deployment deployment, final Path fullPath) {
+		return doOnEvent( deployment, fullPath, (final Path absoluteTargetDirectory, final Path absoluteTargetPath, final FileLockCheckerAndRetryer fileLockCheckerAndRetryer, final FileSystemCommonActions fsActions) -> {
 			try {
 				fsActions.makeDirectoryOrThrow( absoluteTargetDirectory );
 			} catch ( final IOException | FileWatcherException e ) {
@@ -101,13 +413,20 @@ public class HotDeployer implements FileSystemEventObserver {
 		});
     }
 
-    public void onFileModifyEvent(final Path fullPath) {
-        onFileCreateEvent(fullPath);
-    }
+	private boolean applySubtreeCreateEvent(final Deployment deployment, final Path fullPath) {
+		return doOnEvent( deployment, fullPath, (final Path absoluteTargetDirectory, final Path absoluteTargetPath, final FileLockCheckerAndRetryer fileLockCheckerAndRetryer, final FileSystemCommonActions fsActions) -> {
+			if ( !this.directoryWatcher.isDirectory( fullPath ) ) {
+				logger.debug( "Got subtree create event on '" + fullPath + "' but discarded because the directory is not here anymore." );
+				return;
+			}
+			// Sub-deployments found inside are left to their own deployment
+			final ParallelTreeCopier copier = deployment.isUseSourceFilesystemOnly() ? this.sourceCopier : this.targetCopier;
+			copier.copy( fullPath, absoluteTargetPath, this.directoryWatcher::isExcluded, StandardCopyOption.REPLACE_EXISTING );
+		});
+	}
 
-	@Override
-	public void onFileDeleteEvent(final Path fullPath) {
-		doOnEvent( fullPath, (final Path absoluteTargetDirectory, final Path absoluteTargetPath, final FileLockCheckerAndRetryer fileLockCheckerAndRetryer, final FileSystemCommonActions fsActions)  -> {
+	private boolean applyDeleteEvent(final Deployment deployment, final Path fullPath) {
+		return doOnEvent( deployment, fullPath, (final Path absoluteTargetDirectory, final Path absoluteTargetPath, final FileLockCheckerAndRetryer fileLockCheckerAndRetryer, final FileSystemCommonActions fsActions)  -> {
 			if ( this.directoryWatcher.isDirectory( fullPath ) ) {
 				// Delete the target directory
 				fileLockCheckerAndRetryer.deleteIfExists( absoluteTargetPath );
@@ -123,19 +442,9 @@ public class HotDeployer implements FileSystemEventObserver {
 	/*
 	 * Common handler for all file events
 	 *
+	 * Returns false if the event could not be applied
 	 */
-	private void doOnEvent(final Path fullPath, final FileEventAction eventAction) {
-        if (watchingDisabled) {
-            return;
-        }
-
-		final Optional<Deployment> optionalDeployment = computeDeploymentForPath(fullPath);
-		if (!optionalDeployment.isPresent()) {
-			logger.warn("Discarding event on '" + basePath.relativize(fullPath) + "' because no deployment matches this path.");
-			return;
-		}
-		final Deployment deployment = optionalDeployment.get();
-
+	private boolean doOnEvent(final Deployment deployment, final Path fullPath, final FileEventAction eventAction) {
 		final FileSystemCommonActions fsActions = deployment.isUseSourceFilesystemOnly() ? this.directoryWatcher.getSourceReader() : this.fileSystemTargetAction;
 		final FileLockCheckerAndRetryer fileLockCheckerAndRetryer = new FileLockCheckerAndRetryer(fsActions, this.directoryWatcher.getSourceReader(), logger);
 		final Path absoluteTargetPath = deployment.getTarget().resolve(deployment.getSource().relativize(fullPath));
@@ -143,32 +452,60 @@ public class HotDeployer implements FileSystemEventObserver {
 
 		try {
 			eventAction.apply(absoluteTargetDir, absoluteTargetPath, fileLockCheckerAndRetryer, fsActions);
+			return true;
 		} catch (final InterruptedException | FileNotFoundException e) {
 			logger.warn("Got event on '" + basePath.relativize(fullPath) + "' but discarded because got an error: " + e.getMessage());
 		} catch (final IOException e) {
 			logger.warn("IO error while handling path '" + basePath.relativize(fullPath) + "': " + e.getMessage());
 		}
+		return false;
 	}
 
 	private Optional<Deployment> computeDeploymentForPath(final Path path) {
 		logger.debug("Processing event on '" + basePath.relativize(path) + "'");
-		final Path relativePath = basePath.relativize(this.directoryWatcher.isDirectory(path) ? path : path.getParent());
-		final Deployment deployment = pathsToDeploymentMap.get(relativePath).deployment;
-		if (deployment == null) {
-			return Optional.empty();
-		}
-
-		if (deployment.isRedeployOnChange()) {
-			final Path archive = deployment.getEnclosingTargetArchive(targetBasePath);
-			if (archive != null) {
-				if (redeployTimer != null) {
-                    redeployTimer.overrideAndTrigger(archive.getFileName());
-                }
+		// Directories created after startup are not in the map: their nearest registered ancestor gives the deployment
+		Path directory = this.directoryWatcher.isDirectory(path) ? path : path.getParent();
+		DeploymentPath deploymentPath = null;
+		while (directory != null && directory.startsWith(basePath) && (deploymentPath = pathsToDeploymentMap.get(basePath.relativize(directory))) == null) {
+			directory = directory.getParent();
+		}
+		return deploymentPath == null ? Optional.empty() : Optional.of(deploymentPath.deployment);
+	}
+
+	/*
+	 * Returns the file name of the archive to redeploy for a change of this deployment, or null if none
+	 */
+	private Path computeArchiveToRedeploy(final Deployment deployment, final Path path) {
+		if (!deployment.isRedeployOnChange() || redeployTimer == null) {
+			return null;
+		}
+		final Path archive = deployment.getEnclosingTargetArchive(targetBasePath);
+		if (archive == null) {
+			logger.warn("Unable to find enclosing archive for redeployment of: " + path);
+			return null;
+		}
+		return archive.getFileName();
+	}
+
+	/*
+	 * Compares the changed class file with the deployed one, before it gets overwritten
+	 */
+	private ClassChange classifyClassChange(final Deployment deployment, final Path path) {
+		final Path deployedPath = deployment.getTarget().resolve(deployment.getSource().relativize(path));
+		try {
+			final byte[] current = readFully(this.directoryWatcher.getSourceReader().streamRead(path));
+
+			final byte[] previous;
+			if (deployment.isUseSourceFilesystemOnly()) {
+				previous = this.directoryWatcher.getSourceReader().exists(deployedPath) ? readFully(this.directoryWatcher.getSourceReader().streamRead(deployedPath)) : null;
 			} else {
-				logger.warn("Unable to find enclosing archive for redeployment of: " + path);
+				previous = this.fileSystemTargetAction.exists(deployedPath) ? readFully(this.fileSystemTargetAction.streamRead(deployedPath)) : null;
 			}
+			return ClassFileComparator.compare(previous, current);
+		} catch (final IOException e) {
+			logger.debug("Unable to compare '" + basePath.relativize(path) + "' with its deployed version: " + e.getMessage());
+			return ClassChange.STRUCTURAL;
 		}
-		return Optional.of(deployment);
 	}
 
     public void waitEvent() throws InterruptedException, IllegalStateException {
@@ -181,11 +518,64 @@ public class HotDeployer implements FileSystemEventObserver {
     }
 
 	private void handleThreadedDeployement(final Path archive) {
+		// Taken first: the changes transferred from now on trigger another redeployment
+		final Set<Long> transferred = awaitingRedeployment.remove(archive);
+		final Set<Path> classFiles = pendingHotSwaps.remove(archive);
+		final boolean redeploymentRequired = pendingRedeployments.remove(archive);
+		if (transferred == null && classFiles == null && !redeploymentRequired) {
+			// Nothing changed since the last run
+			return;
+		}
+		if (redeploymentRequired || classFiles == null || !hotSwap(archive, classFiles)) {
+			try {
+				logger.info("Triggering redeployment of archive: " + archive);
+				this.fileSystemTargetAction.touchFile(targetBasePath.resolve(archive + ".dodeploy"));
+			} catch (final IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		if (transferred != null) {
+			transferred.forEach(this::complete);
+		}
+    }
+
+	/**
+	 * Stops the subtree copiers. The pipeline stages are closed with the {@link Pipeline} they belong to.
+	 */
+	@Override
+	public void close() {
+		if (targetCopier != null) {
+			targetCopier.close();
+			sourceCopier.close();
+		}
+	}
+
+	private boolean hotSwap(final Path archive, final Set<Path> classFiles) {
+		final List<byte[]> classFilesContent = new ArrayList<>(classFiles.size());
 		try {
-			logger.info("Triggering redeployment of archive: " + archive);
-			this.fileSystemTargetAction.touchFile(targetBasePath.resolve(archive + ".dodeploy"));
+			for (final Path classFile : classFiles) {
+				classFilesContent.add(readFully(this.directoryWatcher.getSourceReader().streamRead(classFile)));
+			}
+			final int redefined = hotSwapper.hotSwap(classFilesContent);
+			logger.info("HotSwap of archive " + archive + ": " + redefined + " loaded classes redefined (" + classFiles.size() + " changed class files)");
+			return true;
 		} catch (final IOException e) {
-			throw new RuntimeException(e);
+			logger.info("Unable to read changed class files of archive " + archive + " for HotSwap (" + e.getMessage() + "), falling back to redeployment");
+		} catch (final HotSwapException e) {
+			logger.info("HotSwap of archive " + archive + " rejected (" + e.getMessage() + "), falling back to redeployment");
 		}
-    }
-}
\ No newline at end of file
+		return false;
+	}
+
+	private static byte[] readFully(final InputStream is) throws IOException {
+		try (final InputStream input = is) {
+			final ByteArrayOutputStream content = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read = input.read(buffer)) != -1) {
+				content.write(buffer, 0, read);
+			}
+			return content.toByteArray();
+		}
+	}
+}
@@ -2,9 +2,11 @@ package com.scorbutics.maven.service.event.observer;
 
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class ObservableQueue<T>  {
-	protected final Set<T> observers = new HashSet<>();
+	// Copy-on-write: observers subscribe from any thread while notifications iterate without locking
+	protected final Set<T> observers = new CopyOnWriteArraySet<>();
 
 	public void subscribe( final T observer) {
 		observers.add(observer);
@@ -0,0 +1,99 @@
+package com.scorbutics.maven.service.event.observer;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+import org.apache.maven.plugin.logging.*;
+
+import com.scorbutics.maven.model.*;
+
+/**
+ * Bounded queue of notifications for a single observer, delivered in order by a dedicated thread.
+ * <p>
+ * The notifying thread only enqueues: a slow observer delays its own notifications, never the other observers.
+ * When the mailbox is full, the {@link OverflowPolicy} decides whether the notifying thread waits or a notification is dropped.
+ */
+public class ObserverMailbox<T> implements AutoCloseable {
+
+	private final T                           observer;
+	private final BlockingQueue<Consumer<T>>  notifications;
+	private final OverflowPolicy              overflowPolicy;
+	private final Log                         logger;
+	private final AtomicLong                  droppedCount = new AtomicLong();
+	private final Thread                      deliveryThread;
+
+	public ObserverMailbox(final T observer, final int capacity, final OverflowPolicy overflowPolicy, final Log logger) {
+		this.observer = observer;
+		this.notifications = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+		this.overflowPolicy = overflowPolicy;
+		this.logger = logger;
+		this.deliveryThread = new Thread(this::deliver, observer.getClass().getSimpleName() + "Mailbox");
+		this.deliveryThread.setDaemon(true);
+		this.deliveryThread.start();
+	}
+
+	/**
+	 * Queues {@code notification} to be run against the observer.
+	 */
+	public void post(final Consumer<T> notification) {
+		switch (overflowPolicy) {
+			case BLOCK:
+				try {
+					notifications.put(notification);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				break;
+			case DROP_NEWEST:
+				if (!notifications.offer(notification)) {
+					onDropped();
+				}
+				break;
+			case DROP_OLDEST:
+			default:
+				while (!notifications.offer(notification)) {
+					if (notifications.poll() != null) {
+						onDropped();
+					}
+				}
+				break;
+		}
+	}
+
+	public T getObserver() {
+		return observer;
+	}
+
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	@Override
+	public void close() {
+		deliveryThread.interrupt();
+	}
+
+	private void onDropped() {
+		if (droppedCount.getAndIncrement() == 0) {
+			logger.warn(observer.getClass().getSimpleName() + " does not keep up with the events: some of its notifications are dropped");
+		}
+	}
+
+	private void deliver() {
+		while (!Thread.currentThread().isInterrupted()) {
+			final Consumer<T> notification;
+			try {
+				notification = notifications.take();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			try {
+				notification.accept(observer);
+			} catch (final RuntimeException e) {
+				logger.warn("Error in " + observer.getClass().getSimpleName() + ": " + e.getMessage(), e);
+			}
+		}
+	}
+}
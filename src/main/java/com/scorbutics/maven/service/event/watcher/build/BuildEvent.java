@@ -0,0 +1,12 @@
+package com.scorbutics.maven.service.event.watcher.build;
+
+import java.nio.file.*;
+
+import lombok.*;
+
+@Builder
+@Value
+public class BuildEvent {
+	BuildEventType type;
+	Path           projectDirectory;
+}
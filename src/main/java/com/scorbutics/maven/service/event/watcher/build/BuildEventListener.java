@@ -0,0 +1,195 @@
+package com.scorbutics.maven.service.event.watcher.build;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.apache.maven.plugin.logging.*;
+
+import com.scorbutics.maven.service.event.observer.*;
+import com.scorbutics.maven.util.*;
+import com.scorbutics.maven.util.timer.*;
+
+/**
+ * Receives the build lifecycle events published by the {@code BuildEventSpy} Maven extension of another Maven process.
+ * <p>
+ * Events are datagrams sent on the loopback interface to a port published in the project {@link StateDirectory}.
+ * The listener keeps track of the projects currently building, so that file events inside them can be held until
+ * their build is over instead of being guessed with a debounce.
+ * <p>
+ * If a build dies without reporting its end, a watchdog ends the session after {@value #WATCHDOG_TIMEOUT_MS}ms
+ * without any build event.
+ */
+public class BuildEventListener extends ObservableQueue<BuildEventObserver> implements BuildEventObservable, AutoCloseable {
+
+	public static final String PORT_FILE = "build-events.port";
+	public static final String FIELD_SEPARATOR = "\t";
+
+	private static final long WATCHDOG_TIMEOUT_MS = 60000;
+	private static final int MAX_DATAGRAM_SIZE = 8192;
+
+	private final Path      portFile;
+	private final Set<Path> buildingProjects = ConcurrentHashMap.newKeySet();
+	private final Debouncer watchdog;
+	private final Log       logger;
+
+	private DatagramSocket socket;
+	private Thread         receiverThread;
+
+	public BuildEventListener(final Path projectDirectory, final Log logger) {
+		this.portFile = StateDirectory.forProject(projectDirectory).resolve(PORT_FILE);
+		this.logger = logger;
+		this.watchdog = TimerWheel.shared().debouncer(WATCHDOG_TIMEOUT_MS, this::onWatchdogTimeout);
+	}
+
+	/**
+	 * Binds the loopback socket and publishes its port for the builds to come.
+	 */
+	public void start() throws IOException {
+		socket = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		Files.createDirectories(portFile.getParent());
+		Files.write(portFile, String.valueOf(socket.getLocalPort()).getBytes(StandardCharsets.UTF_8));
+
+		receiverThread = new Thread(this::receive, "BuildEventListener");
+		receiverThread.setDaemon(true);
+		receiverThread.start();
+		logger.debug("Listening for build events on port " + socket.getLocalPort() + " (published in " + portFile + ")");
+	}
+
+	/**
+	 * Returns true if {@code path} belongs to a project that is currently being built.
+	 */
+	public boolean isBuilding(final Path path) {
+		if (buildingProjects.isEmpty()) {
+			return false;
+		}
+		for (final Path project : buildingProjects) {
+			if (path.startsWith(project)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void receive() {
+		final byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+		final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+		while (!socket.isClosed()) {
+			try {
+				socket.receive(packet);
+				final String message = new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8);
+				parse(message).ifPresent(this::dispatch);
+			} catch (final SocketException e) {
+				// Socket closed
+				break;
+			} catch (final Exception e) {
+				logger.warn("Error while receiving build event: " + e.getMessage());
+			}
+		}
+	}
+
+	private Optional<BuildEvent> parse(final String message) {
+		final String[] fields = message.split(FIELD_SEPARATOR, 2);
+		try {
+			return Optional.of(BuildEvent.builder()
+					.type(BuildEventType.valueOf(fields[0]))
+					.projectDirectory(fields.length > 1 ? Paths.get(fields[1]).toAbsolutePath().normalize() : null)
+					.build());
+		} catch (final IllegalArgumentException e) {
+			logger.debug("Ignoring malformed build event: " + message);
+			return Optional.empty();
+		}
+	}
+
+	private void dispatch(final BuildEvent event) {
+		logger.debug("Build event " + event.getType() + " " + event.getProjectDirectory());
+		switch (event.getType()) {
+			case SESSION_STARTED:
+				notifySessionStarted(event);
+				break;
+			case PROJECT_STARTED:
+				buildingProjects.add(event.getProjectDirectory());
+				watchdog.trigger();
+				notifyProjectStarted(event);
+				break;
+			case PROJECT_SUCCEEDED:
+			case PROJECT_FAILED:
+				buildingProjects.remove(event.getProjectDirectory());
+				watchdog.trigger();
+				notifyProjectFinished(event);
+				break;
+			case SESSION_ENDED:
+				buildingProjects.clear();
+				notifySessionEnded(event);
+				break;
+		}
+	}
+
+	private void onWatchdogTimeout() {
+		if (buildingProjects.isEmpty()) {
+			return;
+		}
+		logger.warn("No build event received for " + WATCHDOG_TIMEOUT_MS / 1000 + "s while building " + buildingProjects + ", considering the build over.");
+		dispatch(BuildEvent.builder().type(BuildEventType.SESSION_ENDED).build());
+	}
+
+	@Override
+	public void notifySessionStarted(final BuildEvent event) {
+		observers.forEach(observer -> {
+			try {
+				observer.onSessionStarted(event);
+			} catch (final Exception e) {
+				logger.error("Error notifying observer about build session start " + e.getMessage());
+			}
+		});
+	}
+
+	@Override
+	public void notifyProjectStarted(final BuildEvent event) {
+		observers.forEach(observer -> {
+			try {
+				observer.onProjectStarted(event);
+			} catch (final Exception e) {
+				logger.error("Error notifying observer about project build start " + e.getMessage());
+			}
+		});
+	}
+
+	@Override
+	public void notifyProjectFinished(final BuildEvent event) {
+		observers.forEach(observer -> {
+			try {
+				observer.onProjectFinished(event);
+			} catch (final Exception e) {
+				logger.error("Error notifying observer about project build end " + e.getMessage());
+			}
+		});
+	}
+
+	@Override
+	public void notifySessionEnded(final BuildEvent event) {
+		observers.forEach(observer -> {
+			try {
+				observer.onSessionEnded(event);
+			} catch (final Exception e) {
+				logger.error("Error notifying observer about build session end " + e.getMessage());
+			}
+		});
+	}
+
+	@Override
+	public void close() {
+		watchdog.cancel();
+		if (socket != null) {
+			socket.close();
+		}
+		try {
+			Files.deleteIfExists(portFile);
+		} catch (final IOException e) {
+			logger.debug("Unable to delete build event port file " + portFile + ": " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,8 @@
+package com.scorbutics.maven.service.event.watcher.build;
+
+public interface BuildEventObservable {
+	void notifySessionStarted(BuildEvent event);
+	void notifyProjectStarted(BuildEvent event);
+	void notifyProjectFinished(BuildEvent event);
+	void notifySessionEnded(BuildEvent event);
+}
@@ -0,0 +1,22 @@
+package com.scorbutics.maven.service.event.watcher.build;
+
+public interface BuildEventObserver {
+	default void onSessionStarted(final BuildEvent event) {
+		// Default no-op implementation
+	}
+
+	default void onProjectStarted(final BuildEvent event) {
+		// Default no-op implementation
+	}
+
+	/**
+	 * Called once a project build is over, whether it succeeded or failed.
+	 */
+	default void onProjectFinished(final BuildEvent event) {
+		// Default no-op implementation
+	}
+
+	default void onSessionEnded(final BuildEvent event) {
+		// Default no-op implementation
+	}
+}
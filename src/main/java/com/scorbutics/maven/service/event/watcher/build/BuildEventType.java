@@ -0,0 +1,9 @@
+package com.scorbutics.maven.service.event.watcher.build;
+
+public enum BuildEventType {
+	SESSION_STARTED,
+	PROJECT_STARTED,
+	PROJECT_SUCCEEDED,
+	PROJECT_FAILED,
+	SESSION_ENDED
+}
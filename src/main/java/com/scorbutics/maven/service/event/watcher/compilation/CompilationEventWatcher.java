@@ -10,30 +10,25 @@ import org.apache.maven.plugin.logging.*;
 
 import com.scorbutics.maven.model.*;
 import com.scorbutics.maven.service.event.observer.*;
+import com.scorbutics.maven.service.event.watcher.build.*;
 import com.scorbutics.maven.service.event.watcher.files.observer.*;
 import com.scorbutics.maven.service.filesystem.source.*;
-
-import lombok.*;
+import com.scorbutics.maven.util.*;
 
 public class CompilationEventWatcher extends ObservableQueue<CompilationEventObserver>
-		implements CompilationEventObservable, FileSystemEventObserver, AutoCloseable {
+		implements CompilationEventObservable, FileSystemEventObserver, BuildEventObserver, AutoCloseable {
 
-	private static final int QUEUE_CAPACITY = 1000;
 	private static final long DEBOUNCE_WINDOW_MS = 500; // 500ms debounce window
 
 	private final FileSystemSourceReader fileSystemSourceReader;
 	private final Map<Path, Deployment> targetArchiveBuiltToDeployment;
 
-	// Producer/Consumer components
-	private final BlockingQueue<FileSystemEvent> eventQueue;
-	private final ExecutorService consumerExecutor;
-	private final ScheduledExecutorService debounceExecutor;
-
-	// Debouncing state
-	private final Map<Path, ScheduledFuture<?>> pendingEvents;
-	private final Object debounceLock = new Object();
+	// Debouncing state: only the latest event of an archive is executed once its window elapsed
+	private final Map<Path, EventType> pendingEvents;
+	private final TimedTask<Path> debouncer;
 
 	private volatile boolean running = true;
+	private BuildEventListener buildEventListener;
 	private final Log logger;
 
 	public CompilationEventWatcher( final Log logger, final FileSystemSourceReader fileSystemSourceReader,
@@ -46,140 +41,86 @@ public class CompilationEventWatcher extends ObservableQueue<CompilationEventObs
 				.filter(deployment -> deployment.getArchive() != null)
 				.collect(Collectors.toMap(Deployment::getArchive, Function.identity()));
 
-		// Initialize producer/consumer infrastructure
-		this.eventQueue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
-		this.consumerExecutor = Executors.newSingleThreadExecutor(r -> {
-			final Thread thread = new Thread(r, "CompilationEventConsumer");
-			thread.setDaemon(true);
-			return thread;
-		});
-		this.debounceExecutor = Executors.newScheduledThreadPool(1, r -> {
-			final Thread thread = new Thread(r, "CompilationEventDebouncer");
-			thread.setDaemon(true);
-			return thread;
-		});
 		this.pendingEvents = new ConcurrentHashMap<>();
-
-		// Start the consumer
-		startConsumer();
+		this.debouncer = new TimedTask<>(DEBOUNCE_WINDOW_MS, this::executeEvent);
 	}
 
 	/**
-	 * Starts the consumer thread that processes events from the queue
+	 * Uses the build lifecycle reported by the Maven extension instead of the debounce window:
+	 * archive events of a project being built are only executed once its build is over.
 	 */
-	private void startConsumer() {
-		consumerExecutor.submit(() -> {
-			while (running || !eventQueue.isEmpty()) {
-				try {
-					final FileSystemEvent event = eventQueue.poll(100, TimeUnit.MILLISECONDS);
-					if (event != null) {
-						processEvent(event);
-					}
-				} catch ( final InterruptedException e) {
-					Thread.currentThread().interrupt();
-					break;
-				} catch ( final Exception e) {
-					logger.warn( "Error processing file system event", e);
-				}
-			}
-		});
+	public void useBuildEvents(final BuildEventListener buildEventListener) {
+		this.buildEventListener = buildEventListener;
+		buildEventListener.subscribe(this);
 	}
 
-	/**
-	 * Producer method - adds events to queue without blocking
-	 */
 	@Override
-	public void onFileCreateEvent(final Path fullPath) {
-		if (!running) {
-			logger.warn("Watcher is stopped, ignoring event for: " + fullPath);
-			return;
-		}
-
-		try {
-			final boolean added = eventQueue.offer(
-					new FileSystemEvent(fullPath, EventType.CREATE_OR_MODIFY),
-					100,
-					TimeUnit.MILLISECONDS
-			);
+	public void onProjectFinished(final BuildEvent event) {
+		pendingEvents.keySet().stream()
+				.filter(path -> path.startsWith(event.getProjectDirectory()))
+				.collect(Collectors.toList())
+				.forEach(this::executeEvent);
+	}
 
-			if (!added) {
-				logger.warn("Event queue is full, dropped event for: " + fullPath);
-			}
-		} catch ( final InterruptedException e) {
-			Thread.currentThread().interrupt();
-			logger.error("Interrupted while adding event to queue", e);
-		}
+	@Override
+	public void onSessionEnded(final BuildEvent event) {
+		new ArrayList<>(pendingEvents.keySet()).forEach(this::executeEvent);
 	}
 
-	/**
-	 * Producer method - adds events to queue without blocking
-	 */
 	@Override
-	public void onFileDeleteEvent(final Path fullPath) {
-		if (!running) {
-			logger.warn("Watcher is stopped, ignoring event for: " + fullPath);
-			return;
-		}
+	public void onFileCreateEvent(final Path fullPath) {
+		submitEvent(fullPath, EventType.CREATE_OR_MODIFY);
+	}
 
-		try {
-			final boolean added = eventQueue.offer(
-					new FileSystemEvent(fullPath, EventType.DELETE),
-					100,
-					TimeUnit.MILLISECONDS
-			);
+	@Override
+	public void onFileModifyEvent(final Path fullPath) {
+		submitEvent(fullPath, EventType.CREATE_OR_MODIFY);
+	}
 
-			if (!added) {
-				logger.warn("Event queue is full, dropped event for: " + fullPath);
-			}
-		} catch ( final InterruptedException e) {
-			Thread.currentThread().interrupt();
-			logger.error("Interrupted while adding event to queue", e);
-		}
+	@Override
+	public void onFileDeleteEvent(final Path fullPath) {
+		submitEvent(fullPath, EventType.DELETE);
 	}
 
 	/**
-	 * Consumer method - processes events with debouncing
+	 * Called for every file event of the watched tree: anything that is not a built archive is dropped
+	 * with a single hash lookup, before any debouncing state is touched.
 	 */
-	private void processEvent(final FileSystemEvent event) {
-		synchronized (debounceLock) {
-			// Cancel any pending event for this path
-			final ScheduledFuture<?> existingFuture = pendingEvents.get(event.getPath());
-			if (existingFuture != null && !existingFuture.isDone()) {
-				existingFuture.cancel(false);
-			}
+	private void submitEvent(final Path fullPath, final EventType type) {
+		if (!targetArchiveBuiltToDeployment.containsKey(fullPath)) {
+			return;
+		}
 
-			// Schedule the new event with debounce window
-			final ScheduledFuture<?> future = debounceExecutor.schedule(
-					() -> executeEvent(event),
-					DEBOUNCE_WINDOW_MS,
-					TimeUnit.MILLISECONDS
-			);
+		if (!running) {
+			logger.warn("Watcher is stopped, ignoring event for: " + fullPath);
+			return;
+		}
 
-			pendingEvents.put(event.getPath(), future);
+		// The latest event wins, its debounce window restarts
+		pendingEvents.put(fullPath, type);
+		if (buildEventListener == null || !buildEventListener.isBuilding(fullPath)) {
+			debouncer.overrideAndTrigger(fullPath);
 		}
 	}
 
 	/**
 	 * Executes the actual event processing after debounce window
 	 */
-	private void executeEvent(final FileSystemEvent event) {
+	private void executeEvent(final Path path) {
 		try {
-			synchronized (debounceLock) {
-				pendingEvents.remove(event.getPath());
-			}
-
-			if (!targetArchiveBuiltToDeployment.containsKey(event.getPath())) {
+			final EventType type = pendingEvents.remove(path);
+			if (type == null || !running) {
 				return;
 			}
 
-			final Deployment deployment = targetArchiveBuiltToDeployment.get(event.getPath());
+			final Deployment deployment = targetArchiveBuiltToDeployment.get(path);
 			final CompilationEvent compilationEvent = CompilationEvent.builder()
 					.deployment(deployment)
 					.build();
 
-			switch (event.getType()) {
+			switch (type) {
 				case CREATE_OR_MODIFY:
-					if (fileSystemSourceReader.exists(event.getPath())) {
+					if (fileSystemSourceReader.exists(path)) {
 						notifyBuildFinishedEvent(compilationEvent);
 					}
 					break;
@@ -188,7 +129,7 @@ public class CompilationEventWatcher extends ObservableQueue<CompilationEventObs
 					break;
 			}
 		} catch ( final Exception e) {
-			logger.error("Error executing event for path: " + event.getPath() + " - " + e.getMessage());
+			logger.error("Error executing event for path: " + path + " - " + e.getMessage());
 		}
 	}
 
@@ -220,33 +161,8 @@ public class CompilationEventWatcher extends ObservableQueue<CompilationEventObs
 	@Override
 	public void close() {
 		running = false;
-
-		// Shutdown executors gracefully
-		debounceExecutor.shutdown();
-		consumerExecutor.shutdown();
-
-		try {
-			if (!debounceExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-				debounceExecutor.shutdownNow();
-			}
-			if (!consumerExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-				consumerExecutor.shutdownNow();
-			}
-		} catch ( final InterruptedException e) {
-			debounceExecutor.shutdownNow();
-			consumerExecutor.shutdownNow();
-			Thread.currentThread().interrupt();
-		}
-
-	}
-
-	/**
-	 * Internal event representation
-	 */
-	@Value
-	private static class FileSystemEvent {
-		Path path;
-		EventType type;
+		debouncer.shutdown();
+		pendingEvents.clear();
 	}
 
 	/**
@@ -256,4 +172,4 @@ public class CompilationEventWatcher extends ObservableQueue<CompilationEventObs
 		CREATE_OR_MODIFY,
 		DELETE
 	}
-}
\ No newline at end of file
+}
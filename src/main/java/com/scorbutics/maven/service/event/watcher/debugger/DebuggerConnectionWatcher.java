@@ -1,14 +1,14 @@
 package com.scorbutics.maven.service.event.watcher.debugger;
 
 import com.scorbutics.maven.service.event.observer.ObservableQueue;
+import com.scorbutics.maven.service.hotswap.HotSwapper;
+import com.scorbutics.maven.util.timer.Timeout;
+import com.scorbutics.maven.util.timer.TimerWheel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
 import org.apache.maven.plugin.logging.Log;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -23,7 +23,7 @@ public class DebuggerConnectionWatcher extends ObservableQueue<DebuggerEventObse
     @NonNull
     private final Log logger;
     private final AtomicBoolean lastKnownState;
-    private ScheduledExecutorService scheduler;
+    private Timeout checkTask;
     /**
      * -- GETTER --
      *  Check if currently monitoring
@@ -50,11 +50,6 @@ public class DebuggerConnectionWatcher extends ObservableQueue<DebuggerEventObse
         }
 
         running = true;
-        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            final Thread thread = new Thread(r, "DebuggerConnectionWatcher");
-            thread.setDaemon(true);
-            return thread;
-        });
 
         // Initial check
         final boolean initialState = detector.isDebuggerAttached(debugPort);
@@ -65,12 +60,7 @@ public class DebuggerConnectionWatcher extends ObservableQueue<DebuggerEventObse
         }
 
         // Schedule periodic checks
-        scheduler.scheduleAtFixedRate(
-            this::checkDebuggerState,
-            checkIntervalMs,
-            checkIntervalMs,
-            TimeUnit.MILLISECONDS
-        );
+        checkTask = TimerWheel.shared().schedulePeriodic(this::checkDebuggerState, checkIntervalMs);
 
         logger.info("Started debugger connection monitoring (Port: " + debugPort + ")");
     }
@@ -84,16 +74,8 @@ public class DebuggerConnectionWatcher extends ObservableQueue<DebuggerEventObse
         }
 
         running = false;
-        if (scheduler != null) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(1, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (final InterruptedException e) {
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (checkTask != null) {
+            checkTask.cancel();
         }
 
         logger.info("Stopped debugger connection monitoring");
@@ -103,6 +85,10 @@ public class DebuggerConnectionWatcher extends ObservableQueue<DebuggerEventObse
      * Check current debugger state and notify observers if changed
      */
     private void checkDebuggerState() {
+        if (HotSwapper.isConnected()) {
+            // Our own HotSwap connection, not an IDE debugger
+            return;
+        }
         try {
             final boolean currentState = detector.isDebuggerAttached(debugPort);
             final boolean previousState = lastKnownState.getAndSet(currentState);
@@ -6,8 +6,6 @@ import com.sun.jna.Platform;
 import com.sun.jna.Pointer;
 import com.sun.jna.ptr.IntByReference;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 
 /**
@@ -16,6 +14,10 @@ import java.io.IOException;
  */
 public class DebuggerDetector {
 
+    private final ProcNetTcpParser procNetTcpParser = new ProcNetTcpParser();
+    // Cleared at the first failure, the /proc tables being used from then on
+    private volatile NetlinkSockDiag netlinkSockDiag = new NetlinkSockDiag();
+
     /**
      * Checks if a debugger is actively attached to the specified JVM process
      * 
@@ -50,56 +52,16 @@ public class DebuggerDetector {
      * Check for connections on Linux without PID (port-only mode for Docker)
      */
     private boolean checkLinuxPortOnly(final int debugPort) {
-        try (final BufferedReader reader = new BufferedReader(new FileReader("/proc/net/tcp"))) {
-            String line;
-            reader.readLine(); // Skip header
-
-            while ((line = reader.readLine()) != null) {
-                final String[] parts = line.trim().split("\\s+");
-                if (parts.length < 4) continue;
-
-                final String localAddress = parts[1];
-                final String state = parts[3];
-
-                // Parse local port
-                final String[] addressParts = localAddress.split(":");
-                final int localPort = Integer.parseInt(addressParts[1], 16);
-
-                // Check if it's our debug port and state is ESTABLISHED (01)
-                if (localPort == debugPort && "01".equals(state)) {
-                    return true;
-                }
-            }
-        } catch (final IOException e) {
-            // Ignore
-        }
-
-        // Try IPv6
-        try (final BufferedReader reader = new BufferedReader(new FileReader("/proc/net/tcp6"))) {
-            String line;
-            reader.readLine(); // Skip header
-
-            while ((line = reader.readLine()) != null) {
-                final String[] parts = line.trim().split("\\s+");
-                if (parts.length < 4) continue;
-
-                final String localAddress = parts[1];
-                final String state = parts[3];
-
-                // Parse local port
-                final String[] addressParts = localAddress.split(":");
-                final int localPort = Integer.parseInt(addressParts[1], 16);
-
-                // Check if it's our debug port and state is ESTABLISHED (01)
-                if (localPort == debugPort && "01".equals(state)) {
-                    return true;
-                }
+        final NetlinkSockDiag sockDiag = netlinkSockDiag;
+        if (sockDiag != null) {
+            try {
+                return sockDiag.hasEstablishedConnection(debugPort);
+            } catch (final IOException e) {
+                // sock_diag unavailable (old kernel, seccomp profile of a container...)
+                netlinkSockDiag = null;
             }
-        } catch (final IOException e) {
-            // Ignore
         }
-
-        return false;
+        return procNetTcpParser.hasEstablishedConnection(debugPort, false);
     }
 
     /**
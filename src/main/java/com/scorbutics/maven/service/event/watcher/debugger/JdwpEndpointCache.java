@@ -0,0 +1,88 @@
+package com.scorbutics.maven.service.event.watcher.debugger;
+
+import com.scorbutics.maven.util.StateDirectory;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Remembers the last JDWP port discovered for each deployment target of a project, so that the next start only has
+ * to revalidate it with a single handshake instead of scanning the whole port range.
+ */
+public class JdwpEndpointCache {
+
+    private static final String CACHE_FILE = "jdwp-endpoints.properties";
+
+    private final Path cacheFile;
+    private final Log logger;
+
+    public JdwpEndpointCache(final Path projectDirectory, final Log logger) {
+        this.cacheFile = StateDirectory.forProject(projectDirectory).resolve(CACHE_FILE);
+        this.logger = logger;
+    }
+
+    /**
+     * Returns the port last discovered for {@code target}, not revalidated.
+     */
+    public synchronized Optional<Integer> get(final Path target) {
+        final String port = load().getProperty(key(target));
+        if (port == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Integer.parseInt(port));
+        } catch (final NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    public synchronized void put(final Path target, final int port) {
+        final Properties endpoints = load();
+        endpoints.setProperty(key(target), String.valueOf(port));
+        store(endpoints);
+    }
+
+    public synchronized void remove(final Path target) {
+        final Properties endpoints = load();
+        if (endpoints.remove(key(target)) != null) {
+            store(endpoints);
+        }
+    }
+
+    private static String key(final Path target) {
+        return target.toAbsolutePath().normalize().toString();
+    }
+
+    private Properties load() {
+        final Properties endpoints = new Properties();
+        if (Files.exists(cacheFile)) {
+            try (final InputStream is = Files.newInputStream(cacheFile)) {
+                endpoints.load(is);
+            } catch (final IOException e) {
+                logger.debug("Unable to read JDWP endpoint cache " + cacheFile + ": " + e.getMessage());
+            }
+        }
+        return endpoints;
+    }
+
+    private void store(final Properties endpoints) {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            // Written aside then moved, so that a concurrent start never reads a partial file
+            final Path temporaryFile = Files.createTempFile(cacheFile.getParent(), CACHE_FILE, ".tmp");
+            try (final OutputStream os = Files.newOutputStream(temporaryFile)) {
+                endpoints.store(os, "Last discovered JDWP port per deployment target");
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            logger.debug("Unable to write JDWP endpoint cache " + cacheFile + ": " + e.getMessage());
+        }
+    }
+}
@@ -8,26 +8,40 @@ import org.apache.maven.plugin.logging.Log;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Scans localhost ports to find JDWP debug ports.
  * This works with Docker containers where the JDWP port is exposed to localhost.
  * Does NOT require knowing the PID - only needs to find active JDWP ports.
+ * <p>
+ * Ports are probed concurrently with non-blocking channels: up to {@value #MAX_IN_FLIGHT_PROBES} connections are in flight,
+ * each one writing the JDWP handshake as soon as connected and reading the answer back.
  */
 public class JdwpPortScanner {
 
     private static final int DEFAULT_PORT_SCAN_START = 5000;
     private static final int DEFAULT_PORT_SCAN_END = 9000;
     private static final int CONNECTION_TIMEOUT_MS = 100;
+    private static final int HANDSHAKE_TIMEOUT_MS = 500;
+    private static final int MAX_IN_FLIGHT_PROBES = 512;
+    private static final int SELECT_TIMEOUT_MS = 10;
 
     // JDWP handshake response
     private static final String JDWP_HANDSHAKE = "JDWP-Handshake";
@@ -44,6 +58,7 @@ public class JdwpPortScanner {
     private final Log logger;
     private final int scanRangeStart;
     private final int scanRangeEnd;
+    private final ProcNetTcpParser procNetTcpParser = new ProcNetTcpParser();
 
     @Builder
     public JdwpPortScanner(final Log logger, final Integer scanRangeStart, final Integer scanRangeEnd) {
@@ -59,15 +74,8 @@ public class JdwpPortScanner {
      * @return List of ports that respond to JDWP handshake
      */
     public List<Integer> scanForJdwpPorts() {
-        final List<Integer> jdwpPorts = new ArrayList<>();
         logger.debug("Scanning localhost ports " + scanRangeStart + "-" + scanRangeEnd + " for JDWP...");
-
-        for (int port = scanRangeStart; port <= scanRangeEnd; port++) {
-            if (isJdwpPort(port)) {
-                jdwpPorts.add(port);
-                logger.debug("Found JDWP port: " + port);
-            }
-        }
+        final List<Integer> jdwpPorts = scan(false);
 
         if (!jdwpPorts.isEmpty()) {
             logger.info("Found " + jdwpPorts.size() + " JDWP port(s): " + jdwpPorts);
@@ -81,13 +89,193 @@ public class JdwpPortScanner {
      * Useful when you expect only one debuggable application.
      */
     public Optional<Integer> findFirstJdwpPort() {
-        final List<Integer> ports = scanForJdwpPorts();
+        logger.debug("Scanning localhost ports " + scanRangeStart + "-" + scanRangeEnd + " for a JDWP port...");
+        // The scan stops at the first answer, which is not necessarily the lowest JDWP port of the range
+        final List<Integer> ports = scan(true);
         if (!ports.isEmpty()) {
             return Optional.of(ports.get(0));
         }
         return Optional.empty();
     }
 
+    /**
+     * Same as {@link #findFirstJdwpPort()}, but scans on a background daemon thread. Cancelling the returned future stops
+     * the scan.
+     */
+    public CompletableFuture<Optional<Integer>> findFirstJdwpPortAsync() {
+        final CompletableFuture<Optional<Integer>> result = new CompletableFuture<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                result.complete(findFirstJdwpPort());
+            } catch (final RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, "JdwpPortScanner");
+        thread.setDaemon(true);
+        result.whenComplete((port, e) -> {
+            if (result.isCancelled()) {
+                thread.interrupt();
+            }
+        });
+        thread.start();
+        return result;
+    }
+
+    /**
+     * State of a single port probe.
+     */
+    private static class Probe {
+        final int port;
+        long deadline;
+        final ByteBuffer handshake = ByteBuffer.wrap(JDWP_HANDSHAKE.getBytes(StandardCharsets.US_ASCII));
+        final ByteBuffer response = ByteBuffer.allocate(JDWP_HANDSHAKE.length());
+
+        Probe(final int port, final long deadline) {
+            this.port = port;
+            this.deadline = deadline;
+        }
+
+        boolean isJdwp() {
+            return new String(response.array(), 0, response.position(), StandardCharsets.US_ASCII).equals(JDWP_HANDSHAKE);
+        }
+    }
+
+    private List<Integer> scan(final boolean stopAtFirst) {
+        final List<Integer> jdwpPorts = new ArrayList<>();
+        final InetAddress localhost;
+        try {
+            localhost = InetAddress.getByName("localhost");
+        } catch (final IOException e) {
+            logger.warn("Unable to resolve localhost for JDWP port scan: " + e.getMessage());
+            return jdwpPorts;
+        }
+
+        try (final Selector selector = Selector.open()) {
+            int nextPort = scanRangeStart;
+            // An interrupted thread is never blocked by the selector
+            while ((nextPort <= scanRangeEnd || !selector.keys().isEmpty()) && !Thread.currentThread().isInterrupted()) {
+                // Keep the pipeline full
+                while (nextPort <= scanRangeEnd && selector.keys().size() < MAX_IN_FLIGHT_PROBES) {
+                    openProbe(selector, localhost, nextPort++);
+                }
+
+                selector.select(SELECT_TIMEOUT_MS);
+                final Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    final SelectionKey key = selected.next();
+                    selected.remove();
+                    final Probe probe = (Probe) key.attachment();
+                    if (advanceProbe(key, probe)) {
+                        logger.debug("Found JDWP port: " + probe.port);
+                        jdwpPorts.add(probe.port);
+                        if (stopAtFirst) {
+                            closeAll(selector);
+                            return jdwpPorts;
+                        }
+                    }
+                }
+
+                final long now = System.currentTimeMillis();
+                for (final SelectionKey key : selector.keys()) {
+                    if (key.isValid() && ((Probe) key.attachment()).deadline < now) {
+                        close(key);
+                    }
+                }
+                // Let the selector deregister the cancelled keys
+                selector.selectNow();
+            }
+            // Probes left by an interruption
+            closeAll(selector);
+        } catch (final IOException e) {
+            logger.warn("JDWP port scan failed: " + e.getMessage());
+        }
+
+        Collections.sort(jdwpPorts);
+        return jdwpPorts;
+    }
+
+    private void openProbe(final Selector selector, final InetAddress address, final int port) {
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            final Probe probe = new Probe(port, System.currentTimeMillis() + CONNECTION_TIMEOUT_MS);
+            final boolean connected = channel.connect(new InetSocketAddress(address, port));
+            if (connected) {
+                if (((InetSocketAddress) channel.getLocalAddress()).getPort() == port) {
+                    closeQuietly(channel);
+                    return;
+                }
+                probe.deadline = System.currentTimeMillis() + HANDSHAKE_TIMEOUT_MS;
+            }
+            channel.register(selector, connected ? SelectionKey.OP_WRITE : SelectionKey.OP_CONNECT, probe);
+        } catch (final IOException e) {
+            // Port not open or connection refused - not a problem
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * Moves a probe one step further (connect, write handshake, read response).
+     *
+     * @return true once the full JDWP handshake has been read back
+     */
+    private boolean advanceProbe(final SelectionKey key, final Probe probe) {
+        final SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            if (key.isConnectable()) {
+                channel.finishConnect();
+                if (((InetSocketAddress) channel.getLocalAddress()).getPort() == probe.port) {
+                    // TCP self-connection on a free port of the ephemeral range: it would echo our own handshake
+                    close(key);
+                    return false;
+                }
+                // Only open ports get there: give the handshake its own, more generous, timeout
+                probe.deadline = System.currentTimeMillis() + HANDSHAKE_TIMEOUT_MS;
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+            if (key.isWritable()) {
+                channel.write(probe.handshake);
+                if (!probe.handshake.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            }
+            if (key.isReadable()) {
+                final int read = channel.read(probe.response);
+                if (read < 0 || !probe.response.hasRemaining()) {
+                    close(key);
+                    return probe.isJdwp();
+                }
+            }
+        } catch (final IOException e) {
+            if (e.getMessage() != null && e.getMessage().startsWith("Connection reset")) {
+                logger.info(probe.port + " - Connection reset by peer, possible JDWP port with debugger already attached.");
+            }
+            close(key);
+        }
+        return false;
+    }
+
+    private static void closeAll(final Selector selector) {
+        selector.keys().forEach(JdwpPortScanner::close);
+    }
+
+    private static void close(final SelectionKey key) {
+        key.cancel();
+        closeQuietly(key.channel());
+    }
+
+    private static void closeQuietly(final Channel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            // Ignore
+        }
+    }
+
     /**
      * Check if a specific port is a JDWP port by attempting handshake.
      *
@@ -142,40 +330,10 @@ public class JdwpPortScanner {
     }
 
     /**
-     * Check for established connections on Linux using netstat
+     * Check for established connections on Linux, on either side of the connection
      */
     private boolean checkLinuxPortConnections(final int port) {
-        try {
-            // Use ss or netstat to check for ESTABLISHED connections
-            final ProcessBuilder pb = new ProcessBuilder("sh", "-c",
-                    "ss -tn state established 2>/dev/null || netstat -tn 2>/dev/null | grep ESTABLISHED");
-            final Process process = pb.start();
-
-            try (final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                final Pattern portPattern = Pattern.compile(":(\\d+)\\s");
-
-                while ((line = reader.readLine()) != null) {
-                    final Matcher matcher = portPattern.matcher(line);
-                    while (matcher.find()) {
-                        try {
-                            final int foundPort = Integer.parseInt(matcher.group(1));
-                            if (foundPort == port && line.contains("ESTAB")) {
-                                return true;
-                            }
-                        } catch (final NumberFormatException e) {
-                            // Ignore
-                        }
-                    }
-                }
-            }
-
-            process.waitFor();
-        } catch (final IOException | InterruptedException e) {
-            logger.debug("Failed to check port connections: " + e.getMessage());
-        }
-
-        return false;
+        return procNetTcpParser.hasEstablishedConnection(port, true);
     }
 
     /**
@@ -0,0 +1,176 @@
+package com.scorbutics.maven.service.event.watcher.debugger;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Platform;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Asks the Linux kernel for established TCP connections on a local port through a {@code NETLINK_SOCK_DIAG} query.
+ * <p>
+ * The state and the port are filtered by the kernel itself (the port through an {@code INET_DIAG_REQ_BYTECODE}
+ * program), so only matching sockets are ever sent back: the cost of a check does not depend on the number of
+ * sockets on the host, unlike a read of {@code /proc/net/tcp}.
+ */
+final class NetlinkSockDiag {
+
+    private static final int AF_INET = 2;
+    private static final int AF_INET6 = 10;
+    private static final int AF_NETLINK = 16;
+    private static final int SOCK_DGRAM = 2;
+    private static final int SOCK_CLOEXEC = 0x80000;
+    private static final int NETLINK_SOCK_DIAG = 4;
+    private static final int IPPROTO_TCP = 6;
+
+    private static final int NLMSG_HDRLEN = 16;
+    private static final int NLMSG_ERROR = 2;
+    private static final int NLMSG_DONE = 3;
+    private static final int NLM_F_REQUEST = 0x1;
+    private static final int NLM_F_DUMP = 0x300;
+    private static final int SOCK_DIAG_BY_FAMILY = 20;
+
+    private static final int TCP_ESTABLISHED = 1;
+    private static final int INET_DIAG_REQ_BYTECODE = 1;
+    private static final int INET_DIAG_BC_S_GE = 2;
+    private static final int INET_DIAG_BC_S_LE = 3;
+
+    // inet_diag_req_v2: family, protocol, ext, pad (4 x u8), states (u32), inet_diag_sockid (48 bytes)
+    private static final int INET_DIAG_REQ_V2_LENGTH = 56;
+    // Two port comparisons, each made of an inet_diag_bc_op followed by the one holding the port
+    private static final int BYTECODE_LENGTH = 16;
+    private static final int NLA_HDRLEN = 4;
+    private static final int REQUEST_LENGTH = NLMSG_HDRLEN + INET_DIAG_REQ_V2_LENGTH + NLA_HDRLEN + BYTECODE_LENGTH;
+    private static final int RESPONSE_BUFFER_SIZE = 32 * 1024;
+
+    private final ByteBuffer request = ByteBuffer.allocate(REQUEST_LENGTH).order(ByteOrder.nativeOrder());
+    private final byte[] response = new byte[RESPONSE_BUFFER_SIZE];
+    private int sequence;
+
+    /**
+     * Returns true if an established IPv4 or IPv6 TCP connection has {@code port} as its local port.
+     *
+     * @throws IOException if the netlink query is not available on this host (old kernel, sandboxed process...)
+     */
+    synchronized boolean hasEstablishedConnection(final int port) throws IOException {
+        if (!Platform.isLinux()) {
+            throw new IOException("sock_diag is only available on Linux");
+        }
+        final LibC libc;
+        try {
+            libc = LibC.instance();
+        } catch (final LinkageError e) {
+            throw new IOException("Unable to load the C library: " + e.getMessage(), e);
+        }
+        final int fd;
+        try {
+            fd = libc.socket(AF_NETLINK, SOCK_DGRAM | SOCK_CLOEXEC, NETLINK_SOCK_DIAG);
+        } catch (final LastErrorException e) {
+            throw new IOException("Unable to open a sock_diag netlink socket: errno " + e.getErrorCode(), e);
+        }
+        try {
+            return query(libc, fd, AF_INET, port) || query(libc, fd, AF_INET6, port);
+        } catch (final LastErrorException e) {
+            throw new IOException("sock_diag query failed: errno " + e.getErrorCode(), e);
+        } finally {
+            libc.close(fd);
+        }
+    }
+
+    private boolean query(final LibC libc, final int fd, final int family, final int port) throws IOException {
+        writeRequest(family, port);
+        libc.send(fd, request.array(), new NativeLong(REQUEST_LENGTH), 0);
+
+        // The dump must be drained up to NLMSG_DONE before the socket can be queried again
+        boolean found = false;
+        for (;;) {
+            final int read = libc.recv(fd, response, new NativeLong(response.length), 0).intValue();
+            final ByteBuffer messages = ByteBuffer.wrap(response, 0, read).order(ByteOrder.nativeOrder());
+            while (messages.remaining() >= NLMSG_HDRLEN) {
+                final int start = messages.position();
+                final int length = messages.getInt(start);
+                final int type = messages.getShort(start + 4) & 0xFFFF;
+                if (length < NLMSG_HDRLEN || length > messages.remaining()) {
+                    throw new IOException("Truncated sock_diag message");
+                }
+                if (type == NLMSG_DONE) {
+                    return found;
+                }
+                if (type == NLMSG_ERROR) {
+                    throw new IOException("sock_diag request rejected: errno " + -messages.getInt(start + NLMSG_HDRLEN));
+                }
+                if (type == SOCK_DIAG_BY_FAMILY) {
+                    // inet_diag_msg: family, state, timer, retrans (4 x u8), then the socket id starting with the big endian source port
+                    final int state = response[start + NLMSG_HDRLEN + 1] & 0xFF;
+                    final int localPort = ((response[start + NLMSG_HDRLEN + 4] & 0xFF) << 8) | (response[start + NLMSG_HDRLEN + 5] & 0xFF);
+                    found |= state == TCP_ESTABLISHED && localPort == port;
+                }
+                messages.position(Math.min(start + align(length), messages.limit()));
+            }
+        }
+    }
+
+    private void writeRequest(final int family, final int port) {
+        request.clear();
+
+        // nlmsghdr
+        request.putInt(REQUEST_LENGTH);
+        request.putShort((short) SOCK_DIAG_BY_FAMILY);
+        request.putShort((short) (NLM_F_REQUEST | NLM_F_DUMP));
+        request.putInt(++sequence);
+        request.putInt(0);
+
+        // inet_diag_req_v2, with an empty socket id: sockets are selected by the states mask and the bytecode below
+        request.put((byte) family);
+        request.put((byte) IPPROTO_TCP);
+        request.put((byte) 0);
+        request.put((byte) 0);
+        request.putInt(1 << TCP_ESTABLISHED);
+        request.put(new byte[INET_DIAG_REQ_V2_LENGTH - 8]);
+
+        // nlattr holding the filter program: sport >= port && sport <= port
+        request.putShort((short) (NLA_HDRLEN + BYTECODE_LENGTH));
+        request.putShort((short) INET_DIAG_REQ_BYTECODE);
+        // A socket is accepted when the program ends exactly on its last byte, rejected when it jumps past it
+        putBytecodeOperation(INET_DIAG_BC_S_GE, 8, BYTECODE_LENGTH + 4);
+        putBytecodeOperation(0, 0, port);
+        putBytecodeOperation(INET_DIAG_BC_S_LE, 8, BYTECODE_LENGTH - 8 + 4);
+        putBytecodeOperation(0, 0, port);
+    }
+
+    private void putBytecodeOperation(final int code, final int yes, final int no) {
+        request.put((byte) code);
+        request.put((byte) yes);
+        request.putShort((short) no);
+    }
+
+    private static int align(final int length) {
+        return (length + 3) & ~3;
+    }
+
+    interface LibC extends Library {
+
+        static LibC instance() {
+            return Holder.INSTANCE;
+        }
+
+        int socket(int domain, int type, int protocol) throws LastErrorException;
+
+        NativeLong send(int fd, byte[] buffer, NativeLong length, int flags) throws LastErrorException;
+
+        NativeLong recv(int fd, byte[] buffer, NativeLong length, int flags) throws LastErrorException;
+
+        int close(int fd);
+
+        final class Holder {
+            private static final LibC INSTANCE = Native.load(Platform.C_LIBRARY_NAME, LibC.class);
+
+            private Holder() {
+            }
+        }
+    }
+}
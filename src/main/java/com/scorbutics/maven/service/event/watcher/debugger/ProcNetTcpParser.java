@@ -0,0 +1,128 @@
+package com.scorbutics.maven.service.event.watcher.debugger;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Looks for established TCP connections in the Linux {@code /proc/net/tcp} and {@code /proc/net/tcp6} tables.
+ * <p>
+ * The tables are parsed byte per byte over a reused buffer: only the port of the local and remote addresses and the
+ * state columns are decoded, in place, and the scan stops at the first match. A poll therefore allocates nothing
+ * but the file handles, whatever the number of sockets on the host.
+ */
+final class ProcNetTcpParser {
+
+    private static final String[] TABLES = {"/proc/net/tcp", "/proc/net/tcp6"};
+    private static final int TCP_ESTABLISHED = 0x01;
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    // Columns of a table line: "sl local_address rem_address st ...", addresses being "HEXIP:HEXPORT"
+    private static final int LOCAL_ADDRESS_COLUMN = 1;
+    private static final int REMOTE_ADDRESS_COLUMN = 2;
+    private static final int STATE_COLUMN = 3;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * Returns true if an established connection uses {@code port} as its local port,
+     * or as its remote port too when {@code matchRemotePort} is set.
+     */
+    synchronized boolean hasEstablishedConnection(final int port, final boolean matchRemotePort) {
+        for (final String table : TABLES) {
+            try (final InputStream is = new FileInputStream(table)) {
+                if (hasEstablishedConnection(is, port, matchRemotePort)) {
+                    return true;
+                }
+            } catch (final IOException e) {
+                // Table not available, such as tcp6 on a host without IPv6
+            }
+        }
+        return false;
+    }
+
+    synchronized boolean hasEstablishedConnection(final InputStream table, final int port, final boolean matchRemotePort) throws IOException {
+        // The first line is the header
+        boolean skipLine = true;
+        boolean inColumn = false;
+        boolean afterColon = false;
+        int column = 0;
+        int localPort = 0;
+        int remotePort = 0;
+        int state = 0;
+
+        int read;
+        while ((read = table.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                final byte b = buffer[i];
+                if (b == '\n') {
+                    skipLine = false;
+                    inColumn = false;
+                    afterColon = false;
+                    column = 0;
+                    localPort = 0;
+                    remotePort = 0;
+                    state = 0;
+                    continue;
+                }
+                if (skipLine) {
+                    continue;
+                }
+
+                if (b == ' ' || b == '\t') {
+                    if (inColumn) {
+                        if (column == STATE_COLUMN) {
+                            if (state == TCP_ESTABLISHED && (localPort == port || (matchRemotePort && remotePort == port))) {
+                                return true;
+                            }
+                            // Nothing else of interest on this line
+                            skipLine = true;
+                        }
+                        inColumn = false;
+                        afterColon = false;
+                        column++;
+                    }
+                    continue;
+                }
+
+                inColumn = true;
+                if (b == ':') {
+                    afterColon = true;
+                    continue;
+                }
+                switch (column) {
+                    case LOCAL_ADDRESS_COLUMN:
+                        if (afterColon) {
+                            localPort = (localPort << 4) | hexDigit(b);
+                        }
+                        break;
+                    case REMOTE_ADDRESS_COLUMN:
+                        if (afterColon) {
+                            remotePort = (remotePort << 4) | hexDigit(b);
+                        }
+                        break;
+                    case STATE_COLUMN:
+                        state = (state << 4) | hexDigit(b);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        // Last line without a trailing line feed, ending right after its state column
+        return !skipLine && column == STATE_COLUMN && state == TCP_ESTABLISHED && (localPort == port || (matchRemotePort && remotePort == port));
+    }
+
+    private static int hexDigit(final byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,150 @@
+package com.scorbutics.maven.service.event.watcher.files;
+
+import com.scorbutics.maven.service.event.watcher.files.state.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Entries of a directory at a point in time, as parallel arrays sorted by name hash.
+ * <p>
+ * Two snapshots of a same directory are compared in a single merge pass over both arrays, with no per-entry allocation.
+ * Subdirectories are recorded with a size of {@code -1}: only their creation and deletion are reported, their content
+ * being compared on its own.
+ */
+final class DirectorySnapshot {
+
+	private static final long DIRECTORY_SIZE = -1;
+
+	private final Path     directory;
+	private final long     modificationTime;
+	private final int[]    hashes;
+	private final String[] names;
+	private final long[]   sizes;
+	private final long[]   modificationTimes;
+
+	private DirectorySnapshot(final Path directory, final long modificationTime, final int[] hashes, final String[] names, final long[] sizes, final long[] modificationTimes) {
+		this.directory = directory;
+		this.modificationTime = modificationTime;
+		this.hashes = hashes;
+		this.names = names;
+		this.sizes = sizes;
+		this.modificationTimes = modificationTimes;
+	}
+
+	static DirectorySnapshot take(final Path directory) throws IOException {
+		final long modificationTime = Files.getLastModifiedTime(directory).toMillis();
+		final List<Entry> entries = new ArrayList<>();
+		try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (final Path path : stream) {
+				try {
+					final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+					entries.add(new Entry(path.getFileName().toString(), attributes.isDirectory() ? DIRECTORY_SIZE : attributes.size(), attributes.lastModifiedTime().toMillis()));
+				} catch (final NoSuchFileException e) {
+					// Deleted while listing
+				}
+			}
+		}
+		entries.sort(Entry.ORDER);
+
+		final int count = entries.size();
+		final int[] hashes = new int[count];
+		final String[] names = new String[count];
+		final long[] sizes = new long[count];
+		final long[] modificationTimes = new long[count];
+		for (int i = 0; i < count; i++) {
+			final Entry entry = entries.get(i);
+			hashes[i] = entry.name.hashCode();
+			names[i] = entry.name;
+			sizes[i] = entry.size;
+			modificationTimes[i] = entry.modificationTime;
+		}
+		return new DirectorySnapshot(directory, modificationTime, hashes, names, sizes, modificationTimes);
+	}
+
+	Path getDirectory() {
+		return directory;
+	}
+
+	int size() {
+		return names.length;
+	}
+
+	/**
+	 * Returns true if the directory itself was not modified since the snapshot, meaning no entry was created, deleted or renamed.
+	 */
+	boolean hasSameModificationTime() throws IOException {
+		return Files.getLastModifiedTime(directory).toMillis() == modificationTime;
+	}
+
+	/**
+	 * Reports the changes from {@code previous} to this snapshot.
+	 *
+	 * @return the number of changes found
+	 */
+	int diff(final DirectorySnapshot previous, final Consumer<PathEvent> eventConsumer) {
+		int changes = 0;
+		int current = 0;
+		int before = 0;
+		while (current < names.length || before < previous.names.length) {
+			final int order;
+			if (current == names.length) {
+				order = 1;
+			} else if (before == previous.names.length) {
+				order = -1;
+			} else {
+				order = compare(hashes[current], names[current], previous.hashes[before], previous.names[before]);
+			}
+
+			if (order < 0) {
+				eventConsumer.accept(event(names[current], StandardWatchEventKinds.ENTRY_CREATE));
+				changes++;
+				current++;
+			} else if (order > 0) {
+				eventConsumer.accept(event(previous.names[before], StandardWatchEventKinds.ENTRY_DELETE));
+				changes++;
+				before++;
+			} else {
+				if ((sizes[current] == DIRECTORY_SIZE) != (previous.sizes[before] == DIRECTORY_SIZE)) {
+					// Replaced by an entry of another type
+					eventConsumer.accept(event(names[current], StandardWatchEventKinds.ENTRY_DELETE));
+					eventConsumer.accept(event(names[current], StandardWatchEventKinds.ENTRY_CREATE));
+					changes++;
+				} else if (sizes[current] != DIRECTORY_SIZE
+						&& (sizes[current] != previous.sizes[before] || modificationTimes[current] != previous.modificationTimes[before])) {
+					eventConsumer.accept(event(names[current], StandardWatchEventKinds.ENTRY_MODIFY));
+					changes++;
+				}
+				current++;
+				before++;
+			}
+		}
+		return changes;
+	}
+
+	private PathEvent event(final String name, final WatchEvent.Kind<Path> kind) {
+		return PathEvent.builder().path(directory.resolve(name)).kind(kind).build();
+	}
+
+	private static int compare(final int hash, final String name, final int otherHash, final String otherName) {
+		final int order = Integer.compare(hash, otherHash);
+		return order != 0 ? order : name.compareTo(otherName);
+	}
+
+	private static final class Entry {
+		static final Comparator<Entry> ORDER = (first, second) -> compare(first.name.hashCode(), first.name, second.name.hashCode(), second.name);
+
+		final String name;
+		final long   size;
+		final long   modificationTime;
+
+		Entry(final String name, final long size, final long modificationTime) {
+			this.name = name;
+			this.size = size;
+			this.modificationTime = modificationTime;
+		}
+	}
+}
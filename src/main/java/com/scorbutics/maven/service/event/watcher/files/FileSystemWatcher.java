@@ -2,39 +2,91 @@ package com.scorbutics.maven.service.event.watcher.files;
 
 import com.scorbutics.maven.service.event.watcher.files.observer.*;
 import com.scorbutics.maven.service.event.watcher.files.state.*;
+import com.scorbutics.maven.util.pipeline.*;
+import com.scorbutics.maven.util.timer.*;
 
 import org.apache.maven.plugin.logging.Log;
 
 import java.io.IOException;
 import java.nio.file.*;
 import java.time.Duration;
-import java.util.Collection;
-import java.util.Optional;
-import java.util.concurrent.*;
+import java.util.*;
+import java.util.function.Predicate;
 
 import lombok.*;
 
-public class FileSystemWatcher implements EventWatcher  {
-    private final WatchService watcher;
+/**
+ * Common part of the file system watchers: the backends only detect the changes, and give them to {@link #produceEvent}
+ * from the thread calling {@link #waitProduceFileEvents}.
+ * <p>
+ * The events then go through the first stages of the deployment pipeline:
+ * <ol>
+ *     <li>ingest: a bounded queue, so that the backend thread goes back to the kernel events right away. Once it is full,
+ *     the events spill into a {@link MappedEventJournal} on disk, replayed in order as soon as the queue has room again:
+ *     a burst of any size is absorbed with a bounded memory</li>
+ *     <li>filter: leaves out the paths outside of the watched roots</li>
+ *     <li>coalesce: debounces and merges the events of a same path</li>
+ *     <li>flush: dispatches the merged events to the functional observers once the debounce window is over, on its own
+ *     worker rather than on the timer, as the observers may wait for room in the next stages</li>
+ * </ol>
+ */
+public abstract class FileSystemWatcher implements EventWatcher  {
 
 	private static final int MAX_DEBOUNCE_WINDOW_MS = 10000;
-	private static final int PRODUCER_EVENT_OFFER_TIMEOUT_MS = 100;
 
 	@Getter
 	private final FileSystemEventObservableQueue technicalConsumerEventQueue  = new FileSystemEventObservableQueue();
 	@Getter
 	private final FileSystemEventObservableQueue functionalConsumerEventQueue = new FileSystemEventObservableQueue();
-    private final BlockingQueue<PathEvent>       producerEventQueue;
     private boolean                              started;
-    private final Log logger;
-	private final int debounceWindowMs;
-
-    public FileSystemWatcher(final int debounceWindowMs, final int queueCapacity, final WatchService watcher, final Log logger) {
-        this.watcher = watcher;
-		this.debounceWindowMs = Math.min( Math.max( debounceWindowMs, 10), MAX_DEBOUNCE_WINDOW_MS ) ;
-        // Bounded queue with your chosen capacity
-        this.producerEventQueue = new ArrayBlockingQueue<>(queueCapacity);
+    protected final Log logger;
+	private final FileEventCoalescer                 coalescer;
+	private final PipelineStage<IngestedEvent>       ingestStage;
+	private final PipelineStage<IngestedEvent>       filterStage;
+	private final PipelineStage<PathEvent>           coalesceStage;
+	private final PipelineStage<Runnable>            flushStage;
+	// Guards the journal, so that no event overtakes the spilled ones
+	private final Object                             spillLock = new Object();
+	private MappedEventJournal                       journal;
+	private Thread                                   journalDrainer;
+
+    protected FileSystemWatcher(final int debounceWindowMs, final int queueCapacity, final Log logger) {
         this.logger = logger;
+		// A single flush waits at most: the pending one dispatches all the events merged until it runs
+		this.flushStage = PipelineStage.<Runnable>builder()
+				.name("flush")
+				.capacity(1)
+				.workers(1)
+				.handler(Runnable::run)
+				.logger(logger)
+				.build();
+        // Debounce window: adjust based on your typical "bunch" duration
+        this.coalescer = new FileEventCoalescer(
+				TimerWheel.shared(),
+                Duration.ofMillis(Math.min( Math.max( debounceWindowMs, 10), MAX_DEBOUNCE_WINDOW_MS )),
+				flush -> flushStage.offer(flush, 0),
+                events -> events.forEach(event ->
+					dispatchEventToQueue(functionalConsumerEventQueue, event.getPath(), event.getKind())
+				),
+                logger
+        );
+		this.coalesceStage = PipelineStage.<PathEvent>builder()
+				.name("coalesce")
+				.handler(coalescer::submitEvent)
+				.logger(logger)
+				.build();
+		this.filterStage = PipelineStage.<IngestedEvent>builder()
+				.name("filter")
+				.handler(this::filter)
+				.logger(logger)
+				.build();
+		this.ingestStage = PipelineStage.<IngestedEvent>builder()
+				.name("ingest")
+				.capacity(queueCapacity)
+				.workers(1)
+				.handler(filterStage::submit)
+				.logger(logger)
+				.build();
     }
 
     @Override
@@ -43,30 +95,28 @@ public class FileSystemWatcher implements EventWatcher  {
             throw new IllegalStateException("Processing already started");
         }
         this.started = true;
+        flushStage.start();
+        ingestStage.start();
+    }
 
-        final ExecutorService processorThreads = Executors.newSingleThreadExecutor();
-        final ExecutorService watcherThread = Executors.newSingleThreadExecutor();
-        // Debounce window: adjust based on your typical "bunch" duration
-        final FileEventCoalescer coalescer = new FileEventCoalescer(
-                Duration.ofMillis(debounceWindowMs),
-                events -> processorThreads.submit(() ->
-					events.forEach(event ->
-						dispatchEventToQueue(functionalConsumerEventQueue, event.getPath(), event.getKind())
-					)
-				 ),
-                logger
-        );
+	@Override
+	public List<PipelineStage<?>> getStages() {
+		return Arrays.asList(ingestStage, filterStage, coalesceStage, flushStage);
+	}
 
-        watcherThread.submit(() -> {
-            try {
-                while (!Thread.currentThread().isInterrupted()) {
-                    coalescer.submitEvent( producerEventQueue.take());
-                }
-            } catch (final InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        });
-    }
+	/**
+	 * Dispatches the events still being coalesced, then stops the stages.
+	 */
+	@Override
+	public void close() {
+		coalescer.shutdown();
+		getStages().forEach(PipelineStage::close);
+		synchronized (spillLock) {
+			if (journalDrainer != null) {
+				journalDrainer.interrupt();
+			}
+		}
+	}
 
 	@Override
 	public void subscribeTechnicalFileEvent( final FileSystemEventObserver observer ) {
@@ -88,42 +138,27 @@ public class FileSystemWatcher implements EventWatcher  {
 		this.functionalConsumerEventQueue.unsubscribe(observer);
 	}
 
-	@SafeVarargs
-	@Override
-    public final void register( final Path path, final WatchEvent.Kind<Path>... entries ) throws IOException {
-        path.register(watcher, entries);
-    }
+	/**
+	 * Gives a detected change to the technical observers right away, then to the pipeline, which only keeps it if it is under {@code includeOnly}.
+	 */
+	protected void produceEvent(final Path fullPath, final WatchEvent.Kind<?> kind, final Predicate<Path> includeOnly) {
+		// The technical consumption is done sequentially in the main thread before any other action is done.
+		// This is important to take direct action on some events, like registering a newly created folder.
+		dispatchEventToQueue(technicalConsumerEventQueue, fullPath, kind);
 
-    @Override
-    public Optional<Path> waitProduceFileEvents(final Collection<Path> includeOnly) throws InterruptedException {
-        final WatchKey key = watcher.take();
-        if (key == null) {
-            return Optional.empty();
-        }
-        final Path dir = (Path) key.watchable();
-        key.pollEvents().forEach(event -> {
-			final Path relativePath = (Path) event.context();
-			if (relativePath == null) {
-				return;
-			}
+		ingest(new IngestedEvent(PathEvent.builder()
+			.path(fullPath)
+			.kind(kind).build(), includeOnly));
+	}
 
-			// The technical consumption is done sequentially in the main thread before any other action is done.
-			// This is important to take direct action on some events, like registering a newly created folder.
-            final Path fullPath = dir.resolve(relativePath);
-			dispatchEventToQueue(technicalConsumerEventQueue, fullPath, event.kind());
-
-            // Exclude events outside the includeOnly path if specified
-            if (includeOnly != null && includeOnly.stream().noneMatch( fullPath::startsWith ) ) {
-				logger.debug("Skipping event for path outside monitored directories: " + fullPath);
-                return;
-            }
-            this.offerEvent(PathEvent.builder()
-                .path(fullPath)
-                .kind(event.kind()).build());
-        });
-        // Reset the key -- this step is critical if you want to receive further watch events.
-        return key.reset() ? Optional.empty() : Optional.of(dir);
-    }
+	private void filter(final IngestedEvent ingested) {
+		// Exclude events outside the includeOnly path if specified
+		if (ingested.includeOnly != null && !ingested.includeOnly.test( ingested.event.path ) ) {
+			logger.debug("Skipping event for path outside monitored directories: " + ingested.event.path);
+			return;
+		}
+		coalesceStage.submit(ingested.event);
+	}
 
 	private void dispatchEventToQueue(final FileSystemEventObservableQueue eventQueue, final Path fullPath, final WatchEvent.Kind<?> kind) {
 		if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
@@ -132,6 +167,8 @@ public class FileSystemWatcher implements EventWatcher  {
 			eventQueue.notifyModifyEvent(fullPath);
 		} else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
 			eventQueue.notifyDeleteEvent(fullPath);
+		} else if (kind == ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE) {
+			eventQueue.notifySubtreeCreateEvent(fullPath);
 		} else if (kind == StandardWatchEventKinds.OVERFLOW) {
 			eventQueue.notifyOverflowEvent();
 		}
@@ -139,14 +176,88 @@ public class FileSystemWatcher implements EventWatcher  {
 
 	@Override
 	public void offerEvent(final PathEvent event) {
-        // Non-blocking offer with timeout
-        try {
-			if (!producerEventQueue.offer( event, PRODUCER_EVENT_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
-				logger.warn("Event queue is full, dropping event: " + event);
+		ingest(new IngestedEvent(event, null));
+    }
+
+	private void ingest(final IngestedEvent ingested) {
+		synchronized (spillLock) {
+			// The producing thread must get back to the file system events right away
+			if ((journal == null || journal.isEmpty()) && ingestStage.offer(ingested, 0)) {
+				return;
+			}
+			// A spilled event does not keep its predicate: filter it now
+			if (ingested.includeOnly != null && !ingested.includeOnly.test(ingested.event.path)) {
+				logger.debug("Skipping event for path outside monitored directories: " + ingested.event.path);
+				return;
 			}
-		} catch (final InterruptedException e) {
-            Thread.currentThread().interrupt();
+			spill(ingested.event);
 		}
-    }
+	}
+
+	private void spill(final PathEvent event) {
+		try {
+			if (journal == null) {
+				journal = new MappedEventJournal(Files.createTempDirectory("javaee-devtools-events"));
+				journal.getDirectory().toFile().deleteOnExit();
+				journalDrainer = new Thread(this::drainJournal, "Event-Journal-Drainer");
+				journalDrainer.setDaemon(true);
+				journalDrainer.start();
+			}
+			if (journal.isEmpty()) {
+				logger.info("Event queue is full, spilling events to " + journal.getDirectory());
+			}
+			journal.append(event);
+			spillLock.notifyAll();
+		} catch (final IOException e) {
+			logger.warn("Event queue is full and the event journal is unavailable (" + e.getMessage() + "), dropping event: " + event);
+		}
+	}
+
+	/*
+	 * An event leaves the journal only once it is in the ingest queue: until then, the new events keep being appended
+	 * behind it
+	 */
+	private void drainJournal() {
+		long drained = 0;
+		while (!Thread.currentThread().isInterrupted()) {
+			final PathEvent event;
+			synchronized (spillLock) {
+				try {
+					if (journal.isEmpty() && drained > 0) {
+						logger.info("Replayed " + drained + " spilled events");
+						drained = 0;
+					}
+					while (journal.isEmpty()) {
+						spillLock.wait();
+					}
+					event = journal.peek();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (final IOException e) {
+					logger.warn("Unable to read the event journal, dropping " + journal.size() + " spilled events: " + e.getMessage());
+					journal.close();
+					continue;
+				}
+			}
+			if (!ingestStage.submit(new IngestedEvent(event, null))) {
+				return;
+			}
+			synchronized (spillLock) {
+				journal.advance();
+				drained++;
+			}
+		}
+	}
+
+	private static final class IngestedEvent {
+		final PathEvent       event;
+		final Predicate<Path> includeOnly;
+
+		IngestedEvent(final PathEvent event, final Predicate<Path> includeOnly) {
+			this.event = event;
+			this.includeOnly = includeOnly;
+		}
+	}
 
 }
\ No newline at end of file
@@ -4,11 +4,71 @@ import org.apache.maven.plugin.logging.Log;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
+/**
+ * Watches directories through the {@link WatchService} of the operating system.
+ */
 public class LocalFileSystemWatcher extends FileSystemWatcher {
 
-    public LocalFileSystemWatcher(final int debounceWindowMs, final Log logger) throws IOException {
-        super(debounceWindowMs, 32768, FileSystems.getDefault().newWatchService(), logger);
+	// Longest wait for kernel events while some directories are polled, whose changes are produced on this thread too
+	private static final int POLLED_EVENTS_WAIT_MS = 500;
+
+    private final WatchService watcher;
+	private final WatchBudgetManager watchBudget;
+
+    public LocalFileSystemWatcher(final int debounceWindowMs, final int queueCapacity, final Log logger) throws IOException {
+        super(debounceWindowMs, queueCapacity, logger);
+        this.watcher = FileSystems.getDefault().newWatchService();
+        this.watchBudget = new WatchBudgetManager(logger);
+    }
+
+	@SafeVarargs
+	@Override
+    public final void register( final Path path, final WatchEvent.Kind<Path>... entries ) throws IOException {
+		// Copied element by element: the varargs array itself must not escape into the registration lambda
+		final WatchEvent.Kind<?>[] kinds = new WatchEvent.Kind<?>[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			kinds[i] = entries[i];
+		}
+        watchBudget.register(path, directory -> directory.register(watcher, kinds));
     }
 
-}
\ No newline at end of file
+    @Override
+    public Optional<Path> waitProduceFileEvents(final Predicate<Path> includeOnly) throws InterruptedException {
+		watchBudget.drainPolledEvents(event -> produceEvent(event.path, event.kind, includeOnly));
+
+        final WatchKey key = watchBudget.isPolling() ? watcher.poll(POLLED_EVENTS_WAIT_MS, TimeUnit.MILLISECONDS) : watcher.take();
+        if (key == null) {
+            return Optional.empty();
+        }
+        final Path dir = (Path) key.watchable();
+		watchBudget.onActivity(dir);
+        key.pollEvents().forEach(event -> {
+			final Path relativePath = (Path) event.context();
+			if (relativePath == null) {
+				return;
+			}
+			produceEvent(dir.resolve(relativePath), event.kind(), includeOnly);
+        });
+        // Reset the key -- this step is critical if you want to receive further watch events.
+        if (key.reset()) {
+			return Optional.empty();
+		}
+		watchBudget.release(dir, key);
+		return Optional.of(dir);
+    }
+
+	@Override
+	public void close() {
+		super.close();
+		try {
+			watcher.close();
+		} catch (final IOException e) {
+			logger.debug("Unable to close the watch service: " + e.getMessage());
+		}
+	}
+
+}
@@ -5,11 +5,13 @@ import org.apache.maven.plugin.logging.Log;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
-import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import com.scorbutics.maven.service.event.watcher.files.observer.*;
 import com.scorbutics.maven.service.event.watcher.files.state.*;
+import com.scorbutics.maven.util.pipeline.*;
 
 public class LogWatcherDecorator implements EventWatcher {
     private final EventWatcher decoratedWatcher;
@@ -27,7 +29,7 @@ public class LogWatcherDecorator implements EventWatcher {
     }
 
     @Override
-    public Optional<Path> waitProduceFileEvents(final Collection<Path> includeOnly) throws InterruptedException {
+    public Optional<Path> waitProduceFileEvents(final Predicate<Path> includeOnly) throws InterruptedException {
         return decoratedWatcher.waitProduceFileEvents(includeOnly);
     }
 
@@ -42,6 +44,16 @@ public class LogWatcherDecorator implements EventWatcher {
 		decoratedWatcher.offerEvent( build );
 	}
 
+	@Override
+	public List<PipelineStage<?>> getStages() {
+		return decoratedWatcher.getStages();
+	}
+
+	@Override
+	public void close() {
+		decoratedWatcher.close();
+	}
+
 	@Override
 	public void subscribeTechnicalFileEvent( final FileSystemEventObserver observer ) {
 		decoratedWatcher.subscribeTechnicalFileEvent(observer);
@@ -0,0 +1,158 @@
+package com.scorbutics.maven.service.event.watcher.files;
+
+import com.scorbutics.maven.service.filesystem.FileWalker;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Fork/join watch registration of directory trees.
+ * <p>
+ * Each directory is a task: it registers its own watch first, then lists its children and forks one task per
+ * subdirectory, so that listing and registering a large tree is spread over all the workers. The type of each child
+ * comes from the listing of its parent: no extra check is made on the file system before registering it.
+ */
+public class ParallelDirectoryRegistrar implements AutoCloseable {
+
+	private static final int DEFAULT_PARALLELISM = 8;
+
+	private final EventWatcher watcher;
+	private final FileWalker   walker;
+	private final Log          logger;
+	private final ForkJoinPool pool;
+	private final AtomicLong   registrationCount = new AtomicLong();
+
+	public ParallelDirectoryRegistrar(final EventWatcher watcher, final FileWalker walker, final Log logger) {
+		this(watcher, walker, logger, Math.min(Runtime.getRuntime().availableProcessors() * 2, DEFAULT_PARALLELISM));
+	}
+
+	public ParallelDirectoryRegistrar(final EventWatcher watcher, final FileWalker walker, final Log logger, final int parallelism) {
+		this.watcher = watcher;
+		this.walker = walker;
+		this.logger = logger;
+		this.pool = new ForkJoinPool(Math.max(parallelism, 1));
+	}
+
+	/**
+	 * Registers {@code root} and every directory below it, skipping the {@code excluded} subtrees.
+	 * The root itself is always registered: it was explicitly asked for, even if another root excludes it from its own walk.
+	 * Registration errors are logged and do not stop the walk.
+	 *
+	 * @return the registered directories
+	 */
+	public List<Path> register(final Path root, final Predicate<Path> excluded) {
+		final Queue<Path> registered = new ConcurrentLinkedQueue<>();
+		invoke(new DirectoryTask(root, path -> !path.equals(root) && excluded.test(path), registered));
+		return new ArrayList<>(registered);
+	}
+
+	/**
+	 * Runs all the {@code tasks} in the registration pool and returns their results in the same order.
+	 * The tasks may themselves call {@link #register(Path, Predicate)}, their subtrees then being shared among all the workers.
+	 */
+	public <T> List<T> invokeAll(final List<Callable<T>> tasks) {
+		final List<ForkJoinTask<T>> forkJoinTasks = new ArrayList<>(tasks.size());
+		tasks.forEach(task -> forkJoinTasks.add(ForkJoinTask.adapt(task)));
+		invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(forkJoinTasks);
+			}
+		});
+
+		final List<T> results = new ArrayList<>(forkJoinTasks.size());
+		forkJoinTasks.forEach(task -> results.add(task.join()));
+		return results;
+	}
+
+	/**
+	 * Returns the number of watches registered since the creation of this registrar.
+	 */
+	public long getRegistrationCount() {
+		return registrationCount.get();
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	private <T> T invoke(final ForkJoinTask<T> task) {
+		// Nested calls from a worker run in place instead of blocking it on a new submission
+		return ForkJoinTask.getPool() == pool ? task.invoke() : pool.invoke(task);
+	}
+
+	@SafeVarargs
+	private static void register(final EventWatcher watcher, final Path directory, final WatchEvent.Kind<Path>... kinds) throws IOException {
+		watcher.register(directory, kinds);
+	}
+
+	private class DirectoryTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Path            directory;
+		private final Predicate<Path> excluded;
+		private final Queue<Path>     registered;
+
+		DirectoryTask(final Path directory, final Predicate<Path> excluded, final Queue<Path> registered) {
+			this.directory = directory;
+			this.excluded = excluded;
+			this.registered = registered;
+		}
+
+		@Override
+		protected void compute() {
+			if (excluded.test(directory)) {
+				logger.debug("Discarding directory " + directory);
+				return;
+			}
+
+			try {
+				register(watcher, directory,
+						StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_DELETE,
+						StandardWatchEventKinds.ENTRY_MODIFY);
+				registrationCount.incrementAndGet();
+				registered.add(directory);
+			} catch (final NoSuchFileException e) {
+				// Deleted in the meantime (or a root that does not exist yet), nothing to watch below
+				return;
+			} catch (final IOException e) {
+				logger.warn("Error while registering directory for watching: " + e.getMessage() + " " + e.getClass().getSimpleName());
+				return;
+			}
+
+			final List<DirectoryTask> subtasks = new ArrayList<>();
+			try {
+				// With a max depth of 1, direct children (including directories) are all reported through visitFile
+				walker.walkTree(directory, 1, new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+						if (attrs.isDirectory()) {
+							subtasks.add(new DirectoryTask(file, excluded, registered));
+						}
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+						logger.debug("Unable to visit '" + file + "': " + exc.getMessage());
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			} catch (final IOException e) {
+				logger.warn("Error while listing directory '" + directory + "' for watching: " + e.getMessage());
+			}
+			invokeAll(subtasks);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.scorbutics.maven.service.event.watcher.files;
+
+import com.scorbutics.maven.service.event.watcher.files.state.*;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Detects changes in directories that have no kernel watch, by comparing snapshots of their entries.
+ * <p>
+ * A scan only reads the modification time of each directory, which changes when an entry is created, deleted or renamed.
+ * Files modified in place do not change it: their directory is fully compared at least every {@link #FULL_SCAN_ROUNDS} scans.
+ */
+public class PollingDirectoryScanner {
+
+	static final int FULL_SCAN_ROUNDS = 8;
+
+	private final Map<Path, DirectorySnapshot> snapshots = new ConcurrentHashMap<>();
+	private final Log logger;
+	private long round;
+
+	public PollingDirectoryScanner(final Log logger) {
+		this.logger = logger;
+	}
+
+	public void add(final Path directory) {
+		snapshots.computeIfAbsent(directory, PollingDirectoryScanner::takeSnapshot);
+	}
+
+	public void remove(final Path directory) {
+		snapshots.remove(directory);
+	}
+
+	public boolean contains(final Path directory) {
+		return snapshots.containsKey(directory);
+	}
+
+	public boolean isEmpty() {
+		return snapshots.isEmpty();
+	}
+
+	public int size() {
+		return snapshots.size();
+	}
+
+	/**
+	 * Compares every polled directory with its last snapshot.
+	 *
+	 * @param eventConsumer receives the changes found, with their full path
+	 * @return the directories in which a change was found
+	 */
+	public synchronized Set<Path> scan(final Consumer<PathEvent> eventConsumer) {
+		final long currentRound = round++;
+		final Set<Path> changedDirectories = new HashSet<>();
+		snapshots.forEach((directory, previous) -> {
+			final boolean fullScan = (directory.hashCode() & Integer.MAX_VALUE) % FULL_SCAN_ROUNDS == currentRound % FULL_SCAN_ROUNDS;
+			try {
+				if (!fullScan && previous.hasSameModificationTime()) {
+					return;
+				}
+				final DirectorySnapshot current = DirectorySnapshot.take(directory);
+				if (current.diff(previous, eventConsumer) > 0) {
+					changedDirectories.add(directory);
+				}
+				snapshots.replace(directory, previous, current);
+			} catch (final IOException e) {
+				if (!(e instanceof NoSuchFileException)) {
+					logger.debug("Unable to scan polled directory '" + directory + "': " + e.getMessage());
+				}
+				// Gone or unreadable: its parent reports the deletion
+				snapshots.remove(directory, previous);
+			}
+		});
+		return changedDirectories;
+	}
+
+	private static DirectorySnapshot takeSnapshot(final Path directory) {
+		try {
+			return DirectorySnapshot.take(directory);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.scorbutics.maven.service.event.watcher.files;
+
+import com.scorbutics.maven.service.event.watcher.files.state.*;
+import com.scorbutics.maven.util.timer.*;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Watches directories by comparing periodic snapshots of their entries, for the file systems on which the
+ * {@link WatchService} reports nothing: Docker Desktop bind mounts, NFS, SMB or VirtualBox shares.
+ * <p>
+ * Each directory has its own scan interval: it is reset to the shortest one as soon as a change is found, and doubles
+ * after every quiet scan up to {@link #MAX_INTERVAL_FACTOR} times the shortest one. Directories being worked on are
+ * thus checked often, while the bulk of the tree costs a listing every few seconds.
+ */
+public class PollingFileSystemWatcher extends FileSystemWatcher {
+
+	static final int MAX_INTERVAL_FACTOR = 8;
+	private static final int MIN_INTERVAL_MS = 100;
+
+	private final long minIntervalMs;
+	private final long maxIntervalMs;
+	private final Map<Path, PolledDirectory> directories = new ConcurrentHashMap<>();
+	private final BlockingQueue<PathEvent> polledEvents = new LinkedBlockingQueue<>();
+	private volatile Timeout scanTask;
+
+	public PollingFileSystemWatcher(final int debounceWindowMs, final int queueCapacity, final int intervalMs, final Log logger) {
+		super(debounceWindowMs, queueCapacity, logger);
+		this.minIntervalMs = Math.max(intervalMs, MIN_INTERVAL_MS);
+		this.maxIntervalMs = minIntervalMs * MAX_INTERVAL_FACTOR;
+	}
+
+	@SafeVarargs
+	@Override
+	public final void register(final Path path, final WatchEvent.Kind<Path>... entries) throws IOException {
+		if (directories.containsKey(path)) {
+			return;
+		}
+		directories.putIfAbsent(path, new PolledDirectory(DirectorySnapshot.take(path), minIntervalMs));
+		startScanning();
+	}
+
+	@Override
+	public Optional<Path> waitProduceFileEvents(final Predicate<Path> includeOnly) throws InterruptedException {
+		PathEvent event = polledEvents.take();
+		do {
+			produceEvent(event.path, event.kind, includeOnly);
+		} while ((event = polledEvents.poll()) != null);
+		return Optional.empty();
+	}
+
+	@Override
+	public synchronized void close() {
+		super.close();
+		if (scanTask != null) {
+			scanTask.cancel();
+		}
+	}
+
+	private synchronized void startScanning() {
+		if (scanTask == null) {
+			logger.info("Polling watched directories every " + minIntervalMs + " to " + maxIntervalMs + " ms");
+			scanTask = TimerWheel.shared().schedulePeriodic(this::scanDueDirectories, minIntervalMs);
+		}
+	}
+
+	/*
+	 * Periodic runs never overlap: a directory is only ever scanned by one thread at a time
+	 */
+	private void scanDueDirectories() {
+		final long now = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+		directories.forEach((directory, polled) -> {
+			if (now < polled.nextScanMs) {
+				return;
+			}
+			final DirectorySnapshot current;
+			try {
+				current = DirectorySnapshot.take(directory);
+			} catch (final IOException e) {
+				if (!(e instanceof NoSuchFileException)) {
+					logger.debug("Unable to scan watched directory '" + directory + "': " + e.getMessage());
+				}
+				// Gone or unreadable: its parent reports the deletion
+				directories.remove(directory, polled);
+				return;
+			}
+
+			if (current.diff(polled.snapshot, polledEvents::add) > 0) {
+				polled.intervalMs = minIntervalMs;
+			} else {
+				polled.intervalMs = Math.min(polled.intervalMs * 2, maxIntervalMs);
+			}
+			polled.snapshot = current;
+			polled.nextScanMs = now + polled.intervalMs;
+		});
+	}
+
+	private static final class PolledDirectory {
+		DirectorySnapshot snapshot;
+		long              intervalMs;
+		long              nextScanMs;
+
+		PolledDirectory(final DirectorySnapshot snapshot, final long intervalMs) {
+			this.snapshot = snapshot;
+			this.intervalMs = intervalMs;
+		}
+	}
+}
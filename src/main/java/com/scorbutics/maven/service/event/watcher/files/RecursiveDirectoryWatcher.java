@@ -14,23 +14,36 @@ import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.*;
 
 import lombok.*;
 
 // TODO clean up a bit the code
 // Be careful this class is very sensitive
-public class RecursiveDirectoryWatcher implements FileSystemEventObserver {
+public class RecursiveDirectoryWatcher implements FileSystemEventObserver, AutoCloseable {
 
 	private static final int MAX_PROCESSOR_THREAD_COUNT = 4;
 
+	// Flags of the paths in the registry
+	private static final int ROOT = 1;
+	private static final int EXCLUDED = 1 << 1;
+	private static final int INTERMEDIATE = 1 << 2;
+
     private final EventWatcher watcher;
 	private final FileSystemSourceReader fileSystemSourceReader;
     private final RecursiveDirectoryWalker recursiveDirectoryWalker;
+    private final ParallelDirectoryRegistrar registrar;
+    // New directories are registered off the main thread, which only drains the watch keys
+    private final ExecutorService registrationWorker = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "DirectoryRegistrationWorker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Path> pendingRegistrations = ConcurrentHashMap.newKeySet();
     private final Log logger;
-    private final Map<Path, Path> registeredRootPaths = new HashMap<>();
-	private final Set<Path> excludedSubtrees = new HashSet<>();
-	private final Set<Path> intermediatePaths = new HashSet<>();
+    // Watched roots, intermediate paths up to their base and excluded subtrees
+    private final PathTrie registeredPaths = new PathTrie();
 	private final int processorThreadCount;
 
     public RecursiveDirectoryWatcher(final int processorThreadCount, final EventWatcher watcher, final FileSystemSourceReader fileSystemSourceReader, final Log logger) {
@@ -39,68 +52,87 @@ public class RecursiveDirectoryWatcher implements FileSystemEventObserver {
 		watcher.subscribeTechnicalFileEvent(this);
         this.fileSystemSourceReader = fileSystemSourceReader;
         this.recursiveDirectoryWalker = new RecursiveDirectoryWalker(this.fileSystemSourceReader);
+        this.registrar = new ParallelDirectoryRegistrar(watcher, fileSystemSourceReader, logger);
         this.logger = logger;
     }
 
-	public SafeStream<Path, IOException> registerRoots(final Path sourcePath, final Path basePath, final Set<Path> excludedSubtrees) throws FileWatcherException {
-		registeredRootPaths.put(sourcePath, basePath != null ? basePath : sourcePath);
-		this.excludedSubtrees.addAll( excludedSubtrees );
+	/**
+	 * Registers all the {@code roots} in parallel, each one being itself registered subtree by subtree.
+	 *
+	 * @return for each root, in the same order, the registered directories and the registration errors of its intermediate paths
+	 */
+	public List<SafeStream<Path, IOException>> registerRoots(final List<WatchedRoot> roots) throws FileWatcherException {
+		final long start = System.nanoTime();
+		final long registrationsBefore = registrar.getRegistrationCount();
+
+		// Exclusions are all known before walking, so that they apply the same way whatever the order of the roots
+		final List<Callable<List<SafeStream.Try<Path, IOException>>>> tasks = new ArrayList<>(roots.size());
+		roots.forEach(root -> {
+			final List<Path> intermediatePaths = prepareRoot(root);
+			tasks.add(() -> registerRoot(root.getSourcePath(), intermediatePaths));
+		});
+		final List<SafeStream<Path, IOException>> results = registrar.invokeAll(tasks).stream()
+				.map(result -> new SafeStream<>(result.stream()))
+				.collect(Collectors.toList());
+
+		final long registrations = registrar.getRegistrationCount() - registrationsBefore;
+		final long elapsedMs = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+		logger.info("Registered " + registrations + " directories for watching in " + elapsedMs + " ms (" + (registrations * 1000 / elapsedMs) + " directories/s)");
+		return results;
+	}
+
+	/*
+	 * Records the root, its intermediate paths and its excluded subtrees, and returns its intermediate paths
+	 */
+	private List<Path> prepareRoot(final WatchedRoot root) {
+		final Path sourcePath = root.getSourcePath();
+		final Path basePath = root.getBasePath();
+		registeredPaths.mark(sourcePath, ROOT);
+		final List<Path> excludedSubtrees = new ArrayList<>(root.getExcludedSubtrees());
 		logger.debug( "Registering root path for watching: " + sourcePath + " (base: " + basePath + ")" );
 
 		final List<Path> intermediatePaths = (basePath == null ? Stream.<Path>of() : PathRangeBuilder.range(basePath, sourcePath)).collect( Collectors.toList());
-
-
-		// Watch every subfolder in the source directory, and all intermediate paths up to the base path
-		final SafeStream<Path, IOException> intermediate = SafeStream.<Path, IOException> of(intermediatePaths.stream())
-				.tryMap(path -> {
-					watcher.register(path,
-							StandardWatchEventKinds.ENTRY_CREATE,
-							StandardWatchEventKinds.ENTRY_DELETE,
-							StandardWatchEventKinds.ENTRY_MODIFY);
-					return path;
-				});
-
-		this.intermediatePaths.addAll( intermediatePaths );
+		intermediatePaths.forEach(intermediatePath -> registeredPaths.mark(intermediatePath, INTERMEDIATE));
 
 		if (basePath != null) {
 			final Set<Path> allIntermediates = Stream.concat( intermediatePaths.stream(), Stream.of( sourcePath ) ).collect( Collectors.toSet() );
-			this.excludedSubtrees.addAll( this.recursiveDirectoryWalker.readRecursive( basePath, allIntermediates.size(), null)
+			final List<Path> siblingSubtrees = this.recursiveDirectoryWalker.readRecursive( basePath, allIntermediates.size(), null)
 					.filter( path -> !allIntermediates.contains( path ) )
-					.collect( Collectors.toSet() )
-			);
+					.collect( Collectors.toList() );
+			excludedSubtrees.addAll(siblingSubtrees);
 		}
-		logger.debug( "Excluding subtrees from watching: " + this.excludedSubtrees );
-
-		final List<Path> subdirectories = new ArrayList<>();
-		this.recursiveDirectoryWalker.walk(logger, sourcePath, Integer.MAX_VALUE, this.excludedSubtrees, new SimpleFileVisitor<Path>() {
-			@Override
-			public @NonNull FileVisitResult preVisitDirectory(final @NonNull Path dir, final @NonNull BasicFileAttributes attrs) {
-				try {
-					if (fileSystemSourceReader.exists(dir)) {
-						subdirectories.add(dir);
-						watcher.register( dir,
-								StandardWatchEventKinds.ENTRY_CREATE,
-								StandardWatchEventKinds.ENTRY_DELETE,
-								StandardWatchEventKinds.ENTRY_MODIFY );
-					}
-				} catch (final IOException e) {
-					logger.warn("Error while registering root directory for watching: " + e.getMessage() + " " + e.getClass().getSimpleName());
-					return FileVisitResult.CONTINUE;
-				}
-				return FileVisitResult.CONTINUE;
+		excludedSubtrees.forEach(excludedSubtree -> registeredPaths.mark(excludedSubtree, EXCLUDED));
+		logger.debug( "Excluding subtrees from watching: " + excludedSubtrees );
+		return intermediatePaths;
+	}
+
+	private List<SafeStream.Try<Path, IOException>> registerRoot(final Path sourcePath, final List<Path> intermediatePaths) {
+		// Watch all intermediate paths up to the base path, then every subfolder in the source directory
+		final List<SafeStream.Try<Path, IOException>> registered = new ArrayList<>();
+		for (final Path intermediatePath : intermediatePaths) {
+			try {
+				watcher.register(intermediatePath,
+						StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_DELETE,
+						StandardWatchEventKinds.ENTRY_MODIFY);
+				registered.add(SafeStream.Try.success(intermediatePath));
+			} catch (final IOException e) {
+				registered.add(SafeStream.Try.failure(e));
 			}
-		});
-		return SafeStream.concat( intermediate, SafeStream.of( subdirectories.stream() ) );
+		}
+		registrar.register(sourcePath, this::isExcluded)
+				.forEach(directory -> registered.add(SafeStream.Try.success(directory)));
+		return registered;
 	}
 
     private SafeStream<Path, IOException> registerRecursive(final Path sourcePath) throws FileWatcherException {
 
-		if ( excludedSubtrees.contains( sourcePath ) ) {
+		if ( isExcluded( sourcePath ) ) {
 			logger.debug("Discarding directory " + sourcePath);
 			return SafeStream.empty();
 		}
 
-		if (this.intermediatePaths.contains( sourcePath )) {
+		if (registeredPaths.isMarked( sourcePath, INTERMEDIATE )) {
 			logger.debug( "Registering single intermediate path for watching: " + sourcePath );
 			try {
 				watcher.register( sourcePath,
@@ -114,41 +146,25 @@ public class RecursiveDirectoryWatcher implements FileSystemEventObserver {
 			}
 		}
 
-		final List<Path> subdirectories = new ArrayList<>();
-		this.recursiveDirectoryWalker.walk(logger, sourcePath, Integer.MAX_VALUE, excludedSubtrees, new SimpleFileVisitor<Path>() {
-			@Override
-			public @NonNull FileVisitResult preVisitDirectory(final @NonNull Path dir, final @NonNull BasicFileAttributes attrs) {
-				try {
-					if (fileSystemSourceReader.exists(dir)) {
-						subdirectories.add(dir);
-						logger.debug("Registering directory " + dir);
-						watcher.register( dir,
-								StandardWatchEventKinds.ENTRY_CREATE,
-								StandardWatchEventKinds.ENTRY_DELETE,
-								StandardWatchEventKinds.ENTRY_MODIFY );
-					}
-				} catch (final IOException e) {
-					logger.warn("Error while registering directory for watching: " + e.getMessage() + " " + e.getClass().getSimpleName());
-					return FileVisitResult.CONTINUE;
-				}
-				return FileVisitResult.CONTINUE;
-			}
-
-			@Override
-			public @NonNull FileVisitResult visitFile(final @NonNull Path file, final @NonNull BasicFileAttributes attrs ) {
-				// Notify about potential skipped files
-				watcher.offerEvent( PathEvent.builder()
-						.path(file)
-						.kind(StandardWatchEventKinds.ENTRY_CREATE).build() );
-
-				return FileVisitResult.CONTINUE;
-			}
-		});
+		final List<Path> subdirectories = registrar.register(sourcePath, this::isExcluded);
+		if (!subdirectories.isEmpty()) {
+			// Files created before the watches were installed were not reported: a single event covers the whole subtree
+			watcher.offerEvent( PathEvent.builder()
+					.path(sourcePath)
+					.kind(ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE).build() );
+		}
 		return SafeStream.of( subdirectories.stream() );
     }
 
     public void waitProduceFileEvents() throws InterruptedException {
-		watcher.waitProduceFileEvents( registeredRootPaths.keySet() );
+		watcher.waitProduceFileEvents( path -> registeredPaths.isMarkedOrUnder( path, ROOT ) );
+	}
+
+	/**
+	 * Returns true if {@code directory} is a subtree excluded from watching, such as the location of a sub-deployment.
+	 */
+	public boolean isExcluded(final Path directory) {
+		return registeredPaths.isMarked( directory, EXCLUDED );
 	}
 
     public boolean isDirectory(final Path path) {
@@ -169,6 +185,20 @@ public class RecursiveDirectoryWatcher implements FileSystemEventObserver {
 
 	@Override
 	public void onFileCreateEvent(final Path fullPath) {
+		// Several events for a same directory waiting in the queue need a single registration
+		if (pendingRegistrations.add(fullPath)) {
+			registrationWorker.execute(() -> {
+				pendingRegistrations.remove(fullPath);
+				registerNewDirectory(fullPath);
+			});
+		}
+	}
+
+	/*
+	 * The watch of the new directory is installed before its content is listed: anything created in between is
+	 * either reported by the listing or by the watch itself
+	 */
+	private void registerNewDirectory(final Path fullPath) {
 		if (!this.fileSystemSourceReader.isDirectory(fullPath)) {
 			// File is not a directory, ignore
 			return;
@@ -194,4 +224,13 @@ public class RecursiveDirectoryWatcher implements FileSystemEventObserver {
 	public void subscribeTechnical(final FileSystemEventObserver observer) {
 		watcher.subscribeTechnicalFileEvent( observer );
 	}
+
+	/**
+	 * Stops the registration workers. The directories already registered are left to the event watcher.
+	 */
+	@Override
+	public void close() {
+		registrationWorker.shutdownNow();
+		registrar.close();
+	}
 }
\ No newline at end of file
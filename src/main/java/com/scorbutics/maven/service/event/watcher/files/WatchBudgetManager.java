@@ -0,0 +1,229 @@
+package com.scorbutics.maven.service.event.watcher.files;
+
+import com.scorbutics.maven.service.event.watcher.files.state.*;
+import com.scorbutics.maven.util.timer.*;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Keeps the number of kernel watches under the inotify limit of the user ({@code fs.inotify.max_user_watches}).
+ * <p>
+ * Watched directories are ranked by their last activity. When the budget is exhausted, the least active ones are
+ * demoted: their watch is cancelled and a {@link PollingDirectoryScanner} checks them periodically instead. A polled
+ * directory in which a change is found is promoted back to a real watch, at the expense of the least active ones.
+ * Watching thus degrades into slower change detection instead of missing changes once the limit is reached.
+ */
+public class WatchBudgetManager {
+
+	static final Path MAX_USER_WATCHES = Paths.get("/proc/sys/fs/inotify/max_user_watches");
+	// Other processes of the user (the IDE first) need watches too
+	private static final int KERNEL_LIMIT_SHARE_PERCENT = 75;
+	private static final int DEMOTION_BATCH_PERCENT = 5;
+	static final long POLLING_INTERVAL_MS = 2000;
+
+	@FunctionalInterface
+	public interface Registration {
+		WatchKey register(Path directory) throws IOException;
+	}
+
+	private final Log logger;
+	private final PollingDirectoryScanner scanner;
+	// Access order: the first entries are the least recently active directories
+	private final LinkedHashMap<Path, Watch> watched = new LinkedHashMap<>(1024, 0.75f, true);
+	// How to watch each polled directory again once promoted
+	private final Map<Path, Registration> polled = new ConcurrentHashMap<>();
+	private final Queue<PathEvent> polledEvents = new ConcurrentLinkedQueue<>();
+	private int budget;
+	private int pendingRegistrations;
+	private Timeout pollingTask;
+	private boolean limitReported;
+
+	public WatchBudgetManager(final Log logger) {
+		this(readKernelBudget(), logger);
+	}
+
+	public WatchBudgetManager(final int budget, final Log logger) {
+		this.budget = Math.max(budget, 1);
+		this.logger = logger;
+		this.scanner = new PollingDirectoryScanner(logger);
+	}
+
+	/**
+	 * Returns the share of the inotify limit of the user this process may use, or no limit outside of Linux.
+	 */
+	static int readKernelBudget() {
+		try {
+			final long limit = Long.parseLong(new String(Files.readAllBytes(MAX_USER_WATCHES), StandardCharsets.US_ASCII).trim());
+			return (int) Math.min(limit * KERNEL_LIMIT_SHARE_PERCENT / 100, Integer.MAX_VALUE);
+		} catch (final IOException | NumberFormatException e) {
+			return Integer.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Watches {@code directory} through {@code registration}, demoting the least active directories first if the budget is
+	 * exhausted, or polls it if no watch can be obtained.
+	 */
+	public void register(final Path directory, final Registration registration) throws IOException {
+		synchronized (this) {
+			if (watched.containsKey(directory)) {
+				// Registering again only updates the watched events
+				watched.put(directory, new Watch(registration.register(directory), registration));
+				return;
+			}
+			ensureCapacity();
+			pendingRegistrations++;
+		}
+
+		WatchKey key = null;
+		try {
+			key = registration.register(directory);
+		} catch (final IOException e) {
+			if (!isWatchLimitReached(e)) {
+				throw e;
+			}
+		} finally {
+			synchronized (this) {
+				pendingRegistrations--;
+			}
+		}
+
+		synchronized (this) {
+			if (key == null) {
+				// The limit is lower than expected: other processes use more watches than assumed
+				budget = Math.max(watched.size() + pendingRegistrations, 1);
+				reportLimit();
+				ensureCapacity();
+				try {
+					key = registration.register(directory);
+				} catch (final IOException e) {
+					if (!isWatchLimitReached(e)) {
+						throw e;
+					}
+					poll(directory, registration);
+					return;
+				}
+			}
+			watched.put(directory, new Watch(key, registration));
+			polled.remove(directory);
+			scanner.remove(directory);
+		}
+	}
+
+	/**
+	 * Ranks {@code directory} as the most recently active one.
+	 */
+	public synchronized void onActivity(final Path directory) {
+		watched.get(directory);
+	}
+
+	/**
+	 * Forgets the watch of a directory, once its key is no longer valid (deleted directory).
+	 */
+	public synchronized void release(final Path directory, final WatchKey key) {
+		final Watch watch = watched.get(directory);
+		if (watch != null && watch.key == key) {
+			watched.remove(directory);
+		}
+	}
+
+	public synchronized boolean isPolling() {
+		return !scanner.isEmpty();
+	}
+
+	/**
+	 * Gives the changes found in the polled directories since the last call to {@code eventConsumer}.
+	 */
+	public void drainPolledEvents(final Consumer<PathEvent> eventConsumer) {
+		PathEvent event;
+		while ((event = polledEvents.poll()) != null) {
+			eventConsumer.accept(event);
+		}
+	}
+
+	public synchronized int getWatchedCount() {
+		return watched.size();
+	}
+
+	public synchronized int getPolledCount() {
+		return scanner.size();
+	}
+
+	private void ensureCapacity() {
+		if (watched.size() + pendingRegistrations < budget) {
+			return;
+		}
+		reportLimit();
+		final int demotions = Math.max(budget * DEMOTION_BATCH_PERCENT / 100, 1);
+		final Iterator<Map.Entry<Path, Watch>> iter = watched.entrySet().iterator();
+		for (int i = 0; i < demotions && iter.hasNext(); i++) {
+			final Map.Entry<Path, Watch> coldest = iter.next();
+			iter.remove();
+			coldest.getValue().key.cancel();
+			poll(coldest.getKey(), coldest.getValue().registration);
+		}
+		logger.debug("Demoted " + demotions + " inactive directories to polling (" + watched.size() + " watched, " + scanner.size() + " polled)");
+	}
+
+	private void poll(final Path directory, final Registration registration) {
+		try {
+			scanner.add(directory);
+		} catch (final UncheckedIOException e) {
+			// Deleted meanwhile, nothing to poll
+			return;
+		}
+		polled.put(directory, registration);
+		if (pollingTask == null) {
+			pollingTask = TimerWheel.shared().schedulePeriodic(this::scan, POLLING_INTERVAL_MS);
+		}
+	}
+
+	private void scan() {
+		final Set<Path> changedDirectories = scanner.scan(polledEvents::add);
+		// Directories that disappeared are no longer scanned
+		polled.keySet().removeIf(directory -> !scanner.contains(directory));
+		// Active again: worth a real watch
+		changedDirectories.forEach(directory -> {
+			final Registration registration = polled.get(directory);
+			if (registration == null) {
+				return;
+			}
+			try {
+				register(directory, registration);
+			} catch (final IOException e) {
+				logger.debug("Unable to watch polled directory '" + directory + "' again: " + e.getMessage());
+			}
+		});
+	}
+
+	private void reportLimit() {
+		if (!limitReported) {
+			limitReported = true;
+			logger.warn("Watch limit reached (" + budget + " directories): the least active directories are now checked every "
+					+ POLLING_INTERVAL_MS + " ms instead. Raise fs.inotify.max_user_watches to watch them all.");
+		}
+	}
+
+	private static final class Watch {
+		final WatchKey     key;
+		final Registration registration;
+
+		Watch(final WatchKey key, final Registration registration) {
+			this.key = key;
+			this.registration = registration;
+		}
+	}
+
+	private static boolean isWatchLimitReached(final IOException e) {
+		// Message of the Linux watch service on ENOSPC
+		return e.getMessage() != null && e.getMessage().contains("inotify watches");
+	}
+}
@@ -0,0 +1,21 @@
+package com.scorbutics.maven.service.event.watcher.files;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+import lombok.*;
+
+/**
+ * A source tree to watch, with the base path its intermediate directories are watched from and the subtrees to leave out.
+ */
+@Builder
+@Value
+public class WatchedRoot {
+	@NonNull
+	Path      sourcePath;
+	Path      basePath;
+	@NonNull
+	@Builder.Default
+	Set<Path> excludedSubtrees = Collections.emptySet();
+}
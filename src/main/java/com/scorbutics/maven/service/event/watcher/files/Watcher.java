@@ -3,17 +3,30 @@ package com.scorbutics.maven.service.event.watcher.files;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
-import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import com.scorbutics.maven.service.event.watcher.files.state.*;
+import com.scorbutics.maven.util.pipeline.*;
 
-public interface Watcher {
+public interface Watcher extends AutoCloseable {
     void register(Path path, WatchEvent.Kind<Path>... entries) throws IOException;
 
-    Optional<Path> waitProduceFileEvents(final Collection<Path> includeOnly) throws InterruptedException;
+    Optional<Path> waitProduceFileEvents(final Predicate<Path> includeOnly) throws InterruptedException;
 
     void startConsuming(final int processorThreadCount);
 
 	void offerEvent( PathEvent build );
+
+	/**
+	 * Returns the pipeline stages the events go through before reaching the functional observers, in processing order.
+	 */
+	List<PipelineStage<?>> getStages();
+
+	/**
+	 * Stops watching and releases the resources held by the watcher.
+	 */
+	@Override
+	void close();
 }
\ No newline at end of file
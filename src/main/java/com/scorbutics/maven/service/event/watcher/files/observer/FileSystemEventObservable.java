@@ -7,5 +7,6 @@ public interface FileSystemEventObservable {
 	void notifyCreateEvent(Path fullPath);
     void notifyModifyEvent(Path fullPath);
 	void notifyDeleteEvent(Path fullPath);
+	void notifySubtreeCreateEvent(Path rootPath);
 	void notifyOverflowEvent();
 }
\ No newline at end of file
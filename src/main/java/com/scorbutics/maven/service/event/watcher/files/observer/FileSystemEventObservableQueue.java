@@ -22,6 +22,11 @@ public class FileSystemEventObservableQueue extends ObservableQueue<FileSystemEv
 		observers.forEach(observer -> observer.onFileDeleteEvent(fullPath));
 	}
 
+	@Override
+	public void notifySubtreeCreateEvent(final Path rootPath) {
+		observers.forEach(observer -> observer.onSubtreeCreateEvent(rootPath));
+	}
+
 	@Override
 	public void notifyOverflowEvent() {
 		observers.forEach( FileSystemEventObserver::onFileOverflowEvent );
@@ -19,4 +19,11 @@ public interface FileSystemEventObserver {
     default void onFileModifyEvent(final Path fullPath) {
         // Default no-op implementation
     }
+
+	/**
+	 * A whole directory tree appeared under {@code rootPath}, none of its files being reported on their own.
+	 */
+	default void onSubtreeCreateEvent(final Path rootPath) {
+		// Default no-op implementation
+	}
 }
\ No newline at end of file
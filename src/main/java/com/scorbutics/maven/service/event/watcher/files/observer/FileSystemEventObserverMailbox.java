@@ -0,0 +1,51 @@
+package com.scorbutics.maven.service.event.watcher.files.observer;
+
+import java.nio.file.*;
+
+import org.apache.maven.plugin.logging.*;
+
+import com.scorbutics.maven.model.*;
+import com.scorbutics.maven.service.event.observer.*;
+
+/**
+ * Delivers the file events to {@code observer} on its own thread, so that it adds no latency to the other observers.
+ * Meant for observers whose work is not on the deployment path, such as logging.
+ */
+public class FileSystemEventObserverMailbox implements FileSystemEventObserver, AutoCloseable {
+
+	private final ObserverMailbox<FileSystemEventObserver> mailbox;
+
+	public FileSystemEventObserverMailbox(final FileSystemEventObserver observer, final int capacity, final OverflowPolicy overflowPolicy, final Log logger) {
+		this.mailbox = new ObserverMailbox<>(observer, capacity, overflowPolicy, logger);
+	}
+
+	@Override
+	public void onFileCreateEvent(final Path fullPath) {
+		mailbox.post(observer -> observer.onFileCreateEvent(fullPath));
+	}
+
+	@Override
+	public void onFileDeleteEvent(final Path fullPath) {
+		mailbox.post(observer -> observer.onFileDeleteEvent(fullPath));
+	}
+
+	@Override
+	public void onFileOverflowEvent() {
+		mailbox.post(FileSystemEventObserver::onFileOverflowEvent);
+	}
+
+	@Override
+	public void onFileModifyEvent(final Path fullPath) {
+		mailbox.post(observer -> observer.onFileModifyEvent(fullPath));
+	}
+
+	@Override
+	public void onSubtreeCreateEvent(final Path rootPath) {
+		mailbox.post(observer -> observer.onSubtreeCreateEvent(rootPath));
+	}
+
+	@Override
+	public void close() {
+		mailbox.close();
+	}
+}
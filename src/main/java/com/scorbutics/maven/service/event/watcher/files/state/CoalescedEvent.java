@@ -6,6 +6,7 @@ import java.nio.file.Path;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.time.Instant;
+import java.util.*;
 
 @Value
 public class CoalescedEvent {
@@ -13,11 +14,21 @@ public class CoalescedEvent {
     Path               path;
 	WatchEvent.Kind<?> kind;
 	Instant            timestamp;
+	// Deployment journal sequences of the merged events, to complete once this one is applied
+	List<Long>         sequences;
+	// Some merged event was left in doubt by a previous run
+	boolean            recovered;
 
     CoalescedEvent(final Path path, final WatchEvent.Kind<?> kind) {
+        this(path, kind, Collections.emptyList(), false);
+    }
+
+    CoalescedEvent(final Path path, final WatchEvent.Kind<?> kind, final List<Long> sequences, final boolean recovered) {
         this.path = path;
         this.kind = kind;
         this.timestamp = Instant.now();
+        this.sequences = sequences;
+        this.recovered = recovered;
     }
 
     /**
@@ -26,7 +37,23 @@ public class CoalescedEvent {
      */
     CoalescedEvent merge(final WatchEvent.Kind<?> newKind) {
         final WatchEvent.Kind<?> resultKind = computeMergedKind(this.kind, newKind);
-        return new CoalescedEvent(this.path, resultKind);
+        return new CoalescedEvent(this.path, resultKind, this.sequences, this.recovered);
+    }
+
+    /**
+     * Same as {@link #merge(WatchEvent.Kind)}, also keeping the journal sequence of the new event.
+     */
+    CoalescedEvent merge(final WatchEvent.Kind<?> newKind, final long sequence, final boolean recovered) {
+        return new CoalescedEvent(this.path, computeMergedKind(this.kind, newKind), withSequence(this.sequences, sequence), this.recovered || recovered);
+    }
+
+    static List<Long> withSequence(final List<Long> sequences, final long sequence) {
+        if (sequence == 0) {
+            return sequences;
+        }
+        final List<Long> merged = new ArrayList<>(sequences);
+        merged.add(sequence);
+        return Collections.unmodifiableList(merged);
     }
 
     private static WatchEvent.Kind<?> computeMergedKind(
@@ -37,23 +64,35 @@ public class CoalescedEvent {
         // CREATE + MODIFY = CREATE
 		// DELETE + CREATE = MODIFY (deleted then recreated = modification)
 		// DELETE + MODIFY = DELETE (should not happen, but treat as DELETE)
+		// DELETE + SUBTREE_CREATE = SUBTREE_CREATE (directory recreated with its content)
+		// SUBTREE_CREATE + DELETE = nothing
+		// SUBTREE_CREATE + CREATE/MODIFY = SUBTREE_CREATE (the subtree copy covers it)
 		// ANY1 + ANY2 = ANY2 (otherwise)
+		if (currentKind == ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE) {
+			if (newKind == StandardWatchEventKinds.ENTRY_DELETE) {
+				return null;
+			}
+			return ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE;
+		}
         if (currentKind == StandardWatchEventKinds.ENTRY_CREATE) {
             if (newKind == StandardWatchEventKinds.ENTRY_DELETE) {
                 return null;
             }
-            return StandardWatchEventKinds.ENTRY_CREATE;
+            return newKind == ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE ? newKind : StandardWatchEventKinds.ENTRY_CREATE;
         } else if (currentKind == StandardWatchEventKinds.ENTRY_DELETE) {
 			if (newKind == StandardWatchEventKinds.ENTRY_CREATE) {
 				return StandardWatchEventKinds.ENTRY_MODIFY;
 			}
+			if (newKind == ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE) {
+				return newKind;
+			}
 			return StandardWatchEventKinds.ENTRY_DELETE;
 		}
         
         return newKind;
     }
 
-    boolean isDeletion() {
+    public boolean isDeletion() {
         return kind == StandardWatchEventKinds.ENTRY_DELETE;
     }
 
@@ -0,0 +1,265 @@
+package com.scorbutics.maven.service.event.watcher.files.state;
+
+import com.scorbutics.maven.util.timer.*;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Crash-safe record of the file events accepted by the deployer and not completely deployed yet.
+ * <p>
+ * Every accepted event and every completion is appended to a memory-mapped file: the records reach the page cache
+ * without a system call, so they survive the end of the JVM, Ctrl-C included. A record is only valid once its type,
+ * written last, is set: a write interrupted halfway is ignored. Periodic checkpoints rewrite the pending events only,
+ * flushed to the disk, which keeps the journal small.
+ * <p>
+ * Checkpoints alternate between two files, the one with the highest generation being the journal: a file still mapped
+ * can be neither replaced nor truncated on every platform, so files are only ever rewritten in place. The generation
+ * is written once the rest of the checkpoint is flushed, and the end of the records is always marked, so that older
+ * content left further in the file is never read.
+ * <p>
+ * On the next start, {@link #getPending()} returns the events whose deployment was in doubt, to be applied again.
+ */
+public class DeploymentJournal implements AutoCloseable {
+
+	static final String JOURNAL_FILE = "deployment.journal";
+	private static final int INITIAL_SIZE = 1024 * 1024;
+	private static final int CHECKPOINT_INTERVAL_MS = 5000;
+
+	private static final byte ACCEPTED  = 1;
+	private static final byte COMPLETED = 2;
+	// Type and body length
+	private static final int HEADER_SIZE = 1 + 4;
+	// Sequence and kind, followed by the path
+	private static final int ACCEPTED_BODY_SIZE = 8 + 1;
+	private static final int COMPLETED_BODY_SIZE = 8;
+	// Generation of the checkpoint, followed by the records
+	private static final int FILE_HEADER_SIZE = 8;
+	// Type of the record following the last one, cleared before each record is committed
+	private static final int END_MARK_SIZE = 1;
+
+	private final Path                 directory;
+	private final Log                  logger;
+	private final Map<Long, PathEvent> pending = new LinkedHashMap<>();
+	private MappedByteBuffer           buffer;
+	// The file holding the journal, 0 or 1, and its generation
+	private int                        activeFile = 1;
+	private long                       generation;
+	private long                       nextSequence = 1;
+	private boolean                    dirty;
+	private Timeout                    checkpointTask;
+
+	private DeploymentJournal(final Path directory, final Log logger) {
+		this.directory = directory;
+		this.logger = logger;
+	}
+
+	/**
+	 * Opens the journal kept in {@code directory}, reading the events left pending by the previous run.
+	 */
+	public static DeploymentJournal open(final Path directory, final Log logger) throws IOException {
+		final DeploymentJournal journal = new DeploymentJournal(directory, logger);
+		journal.load();
+		journal.writeCheckpoint(0);
+		journal.checkpointTask = TimerWheel.shared().schedulePeriodic(journal::checkpoint, CHECKPOINT_INTERVAL_MS);
+		return journal;
+	}
+
+	/**
+	 * Returns the pending events by sequence number, oldest first.
+	 */
+	public synchronized Map<Long, PathEvent> getPending() {
+		return new LinkedHashMap<>(pending);
+	}
+
+	/**
+	 * Records that the deployment of an event starts.
+	 *
+	 * @return the sequence number of the event, to give to {@link #completed(long)}
+	 */
+	public synchronized long accepted(final Path path, final WatchEvent.Kind<?> kind) {
+		final long sequence = nextSequence++;
+		final byte[] encodedPath = path.toString().getBytes(StandardCharsets.UTF_8);
+		pending.put(sequence, PathEvent.builder().path(path).kind(kind).build());
+		if (ensureRoom(HEADER_SIZE + ACCEPTED_BODY_SIZE + encodedPath.length + END_MARK_SIZE)) {
+			writeAccepted(buffer, sequence, kind, encodedPath);
+		}
+		dirty = true;
+		return sequence;
+	}
+
+	/**
+	 * Records that the event of {@code sequence} is deployed.
+	 */
+	public synchronized void completed(final long sequence) {
+		if (pending.remove(sequence) == null) {
+			return;
+		}
+		if (ensureRoom(HEADER_SIZE + COMPLETED_BODY_SIZE + END_MARK_SIZE)) {
+			final int start = buffer.position();
+			buffer.put(start + HEADER_SIZE + COMPLETED_BODY_SIZE, (byte) 0);
+			buffer.position(start + 1);
+			buffer.putInt(COMPLETED_BODY_SIZE);
+			buffer.putLong(sequence);
+			buffer.put(start, COMPLETED);
+		}
+		dirty = true;
+	}
+
+	public synchronized void checkpoint() {
+		checkpoint(0);
+	}
+
+	@Override
+	public synchronized void close() {
+		if (checkpointTask != null) {
+			checkpointTask.cancel();
+		}
+		checkpoint(0);
+	}
+
+	static Path journalFile(final Path directory, final int file) {
+		return directory.resolve(JOURNAL_FILE + "." + file);
+	}
+
+	private void load() throws IOException {
+		for (int file = 0; file < 2; file++) {
+			final long fileGeneration = readGeneration(journalFile(directory, file));
+			if (fileGeneration > generation) {
+				generation = fileGeneration;
+				activeFile = file;
+			}
+		}
+		if (generation == 0) {
+			return;
+		}
+		final Path journalFile = journalFile(directory, activeFile);
+		try (final FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+			final MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			content.position(FILE_HEADER_SIZE);
+			while (content.remaining() >= HEADER_SIZE) {
+				final byte type = content.get();
+				final int length = content.getInt();
+				if (type == 0 || length < COMPLETED_BODY_SIZE || length > content.remaining()) {
+					// End of the records, or a record interrupted before it was committed
+					break;
+				}
+				final long sequence = content.getLong();
+				nextSequence = Math.max(nextSequence, sequence + 1);
+				if (type == COMPLETED) {
+					pending.remove(sequence);
+					continue;
+				}
+				final WatchEvent.Kind<?> kind = ExtendedWatchEventKinds.fromCode(content.get());
+				final byte[] path = new byte[length - ACCEPTED_BODY_SIZE];
+				content.get(path);
+				if (type == ACCEPTED && kind != null) {
+					pending.put(sequence, PathEvent.builder()
+							.path(Paths.get(new String(path, StandardCharsets.UTF_8)))
+							.kind(kind)
+							.build());
+				}
+			}
+		}
+		if (!pending.isEmpty()) {
+			logger.info("Found " + pending.size() + " file changes not deployed by the previous run in " + journalFile);
+		}
+	}
+
+	/*
+	 * Returns the generation of a journal file, 0 if it has none
+	 */
+	private static long readGeneration(final Path journalFile) throws IOException {
+		if (!Files.exists(journalFile)) {
+			return 0;
+		}
+		try (final FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+			final ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// Read until the header is complete or the file ends
+			}
+			return header.hasRemaining() ? 0 : header.getLong(0);
+		}
+	}
+
+	/*
+	 * Checkpoints to a larger file when the current one is full. Returns false if the journal is unavailable: the
+	 * events are then only tracked in memory until the next successful checkpoint.
+	 */
+	private boolean ensureRoom(final int recordSize) {
+		if (buffer != null && buffer.remaining() >= recordSize) {
+			return true;
+		}
+		checkpoint(recordSize);
+		return buffer != null;
+	}
+
+	private void checkpoint(final int extraRoom) {
+		if (!dirty && extraRoom == 0) {
+			return;
+		}
+		try {
+			writeCheckpoint(extraRoom);
+		} catch (final IOException e) {
+			logger.warn("Unable to checkpoint the deployment journal in " + directory + ": " + e.getMessage());
+			if (buffer != null && buffer.remaining() < extraRoom) {
+				buffer = null;
+			}
+		}
+	}
+
+	/*
+	 * Writes the pending events to the other journal file, flushed, then makes it the journal by writing its generation.
+	 * The file stays mapped for the next records.
+	 */
+	private void writeCheckpoint(final int extraRoom) throws IOException {
+		final List<byte[]> paths = new ArrayList<>(pending.size());
+		int size = FILE_HEADER_SIZE + extraRoom + END_MARK_SIZE;
+		for (final PathEvent event : pending.values()) {
+			final byte[] path = event.path.toString().getBytes(StandardCharsets.UTF_8);
+			paths.add(path);
+			size += HEADER_SIZE + ACCEPTED_BODY_SIZE + path.length;
+		}
+
+		Files.createDirectories(directory);
+		final int checkpointFile = 1 - activeFile;
+		final MappedByteBuffer checkpoint;
+		// Never truncated: the content left after the end mark is ignored
+		try (final FileChannel channel = FileChannel.open(journalFile(directory, checkpointFile), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			checkpoint = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_SIZE, 2 * size));
+		}
+		// The previous generation stays lower than the journal's until the checkpoint is complete
+		checkpoint.position(FILE_HEADER_SIZE);
+		checkpoint.put(FILE_HEADER_SIZE, (byte) 0);
+		int index = 0;
+		for (final Map.Entry<Long, PathEvent> entry : pending.entrySet()) {
+			writeAccepted(checkpoint, entry.getKey(), entry.getValue().kind, paths.get(index++));
+		}
+		checkpoint.force();
+		checkpoint.putLong(0, generation + 1);
+		checkpoint.force();
+		generation++;
+		activeFile = checkpointFile;
+		buffer = checkpoint;
+		dirty = false;
+	}
+
+	private static void writeAccepted(final MappedByteBuffer buffer, final long sequence, final WatchEvent.Kind<?> kind, final byte[] path) {
+		final int start = buffer.position();
+		buffer.put(start + HEADER_SIZE + ACCEPTED_BODY_SIZE + path.length, (byte) 0);
+		buffer.position(start + 1);
+		buffer.putInt(ACCEPTED_BODY_SIZE + path.length);
+		buffer.putLong(sequence);
+		buffer.put(ExtendedWatchEventKinds.toCode(kind));
+		buffer.put(path);
+		// Committed once complete
+		buffer.put(start, ACCEPTED);
+	}
+}
@@ -0,0 +1,56 @@
+package com.scorbutics.maven.service.event.watcher.files.state;
+
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.experimental.*;
+
+/**
+ * Event kinds produced by the watcher itself, in addition to the {@link java.nio.file.StandardWatchEventKinds}.
+ */
+@UtilityClass
+public class ExtendedWatchEventKinds {
+
+	/**
+	 * A whole directory tree appeared: the event carries its root, instead of one creation event per file found inside.
+	 */
+	public static final WatchEvent.Kind<Path> ENTRY_SUBTREE_CREATE = new WatchEvent.Kind<Path>() {
+		@Override
+		public String name() {
+			return "ENTRY_SUBTREE_CREATE";
+		}
+
+		@Override
+		public Class<Path> type() {
+			return Path.class;
+		}
+
+		@Override
+		public String toString() {
+			return name();
+		}
+	};
+
+	// Stable codes of the kinds, for the events written to disk
+	private static final List<WatchEvent.Kind<?>> KINDS = Arrays.asList(
+			StandardWatchEventKinds.OVERFLOW,
+			StandardWatchEventKinds.ENTRY_CREATE,
+			StandardWatchEventKinds.ENTRY_MODIFY,
+			StandardWatchEventKinds.ENTRY_DELETE,
+			ENTRY_SUBTREE_CREATE
+	);
+
+	public static byte toCode(final WatchEvent.Kind<?> kind) {
+		return (byte) KINDS.indexOf(kind);
+	}
+
+	/**
+	 * Returns the kind of {@code code}, or null if the code is unknown.
+	 */
+	public static WatchEvent.Kind<?> fromCode(final int code) {
+		return code >= 0 && code < KINDS.size() ? KINDS.get(code) : null;
+	}
+}
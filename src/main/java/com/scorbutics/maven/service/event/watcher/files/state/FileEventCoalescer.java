@@ -1,6 +1,6 @@
 package com.scorbutics.maven.service.event.watcher.files.state;
 
-import lombok.*;
+import com.scorbutics.maven.util.timer.*;
 
 import org.apache.maven.plugin.logging.Log;
 
@@ -11,13 +11,8 @@ import java.util.concurrent.*;
 import java.util.function.Consumer;
 import java.util.stream.*;
 
-@RequiredArgsConstructor
 public class FileEventCoalescer {
 
-	private static final int SCHEDULER_TERMINATION_TIMEOUT_S = 5;
-
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-
 	// Queue maintains insertion order
 	private final ConcurrentLinkedQueue<Path> eventOrder = new ConcurrentLinkedQueue<>();
 	// Map for fast lookup and merging
@@ -25,12 +20,24 @@ public class FileEventCoalescer {
 	// Track what's in the queue to avoid duplicates
 	private final Set<Path> inQueue = ConcurrentHashMap.newKeySet();
 
-	private final Duration debounceWindow;
     private final Consumer<Stream<CoalescedEvent>> eventProcessor;
     private final Log logger;
 
-	private       ScheduledFuture<?> globalFlush;
-	private final Object             flushLock = new Object();
+	private final Debouncer globalFlush;
+	private final Object    flushLock = new Object();
+
+	public FileEventCoalescer(final Duration debounceWindow, final Consumer<Stream<CoalescedEvent>> eventProcessor, final Log logger) {
+		this(TimerWheel.shared(), debounceWindow, Runnable::run, eventProcessor, logger);
+	}
+
+	/**
+	 * @param flushExecutor runs the flushes, which may block in {@code eventProcessor}: the timer only hands them over
+	 */
+	public FileEventCoalescer(final TimerWheel timerWheel, final Duration debounceWindow, final Executor flushExecutor, final Consumer<Stream<CoalescedEvent>> eventProcessor, final Log logger) {
+		this.eventProcessor = eventProcessor;
+		this.logger = logger;
+		this.globalFlush = timerWheel.debouncer(debounceWindow.toMillis(), () -> flushExecutor.execute(this::flushAllEvents));
+	}
 
     public void submitEvent(final PathEvent event) {
         final Path normalizedPath = event.path.normalize();
@@ -52,14 +59,7 @@ public class FileEventCoalescer {
 		}
 
 		// Reset global debounce timer
-		synchronized (flushLock) {
-			if (globalFlush != null && !globalFlush.isDone()) {
-				globalFlush.cancel(false);
-			}
-
-			globalFlush = scheduler.schedule(this::flushAllEvents,
-					debounceWindow.toMillis(), TimeUnit.MILLISECONDS);
-		}
+		globalFlush.trigger();
 	}
 
     private void flushAllEvents() {
@@ -114,16 +114,12 @@ public class FileEventCoalescer {
 		return related;
 	}
 
+	/**
+	 * Stops the debounce timer, then flushes the pending events on the calling thread.
+	 */
     public void shutdown() {
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(SCHEDULER_TERMINATION_TIMEOUT_S, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (final InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+        globalFlush.cancel();
+		flushAllEvents();
     }
 
 }
\ No newline at end of file
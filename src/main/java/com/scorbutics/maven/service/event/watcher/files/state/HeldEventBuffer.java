@@ -0,0 +1,50 @@
+package com.scorbutics.maven.service.event.watcher.files.state;
+
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Holds file events while they must not be applied yet (for instance during a build), merging successive events
+ * of a same path the same way as {@link FileEventCoalescer}. Released events keep their first arrival order.
+ * <p>
+ * Released events merged into nothing are returned too, for their journal sequences to be completed.
+ */
+public class HeldEventBuffer {
+
+	private final Map<Path, CoalescedEvent> heldEvents = new LinkedHashMap<>();
+
+	/**
+	 * @param sequence the deployment journal sequence of the event, 0 if not journaled
+	 */
+	public synchronized void hold(final Path path, final WatchEvent.Kind<?> kind, final long sequence, final boolean recovered) {
+		heldEvents.compute(path, (k, existing) -> existing != null
+				? existing.merge(kind, sequence, recovered)
+				: new CoalescedEvent(k, kind, CoalescedEvent.withSequence(Collections.emptyList(), sequence), recovered));
+	}
+
+	/**
+	 * Removes and returns the held events of {@code path} and of everything below it.
+	 */
+	public synchronized List<CoalescedEvent> release(final Path path) {
+		final List<CoalescedEvent> released = new ArrayList<>();
+		final Iterator<Map.Entry<Path, CoalescedEvent>> iter = heldEvents.entrySet().iterator();
+		while (iter.hasNext()) {
+			final Map.Entry<Path, CoalescedEvent> entry = iter.next();
+			if (entry.getKey().startsWith(path)) {
+				iter.remove();
+				released.add(entry.getValue());
+			}
+		}
+		return released;
+	}
+
+	public synchronized List<CoalescedEvent> releaseAll() {
+		final List<CoalescedEvent> released = new ArrayList<>(heldEvents.values());
+		heldEvents.clear();
+		return released;
+	}
+
+	public synchronized boolean isEmpty() {
+		return heldEvents.isEmpty();
+	}
+}
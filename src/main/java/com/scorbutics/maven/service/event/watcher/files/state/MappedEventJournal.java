@@ -0,0 +1,182 @@
+package com.scorbutics.maven.service.event.watcher.files.state;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Append-only queue of file events kept on disk, in memory-mapped segment files.
+ * <p>
+ * Each record only stores the part of its path that differs from the previous record of the segment: events of a burst
+ * mostly share long directory prefixes, which keeps the journal compact. Segments are deleted once fully read, so the
+ * disk usage follows the backlog. Not thread-safe: callers synchronize.
+ */
+public class MappedEventJournal implements AutoCloseable {
+
+	static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+	// Shared prefix length, suffix length and kind
+	private static final int HEADER_SIZE = 2 + 2 + 1;
+	private static final int MAX_PATH_LENGTH = 0xFFFF;
+
+	private final Path              directory;
+	private final int               segmentSize;
+	private final Deque<Segment>    segments = new ArrayDeque<>();
+	private long                    nextSegmentId;
+	private long                    size;
+
+	// Record decoded by peek, consumed by advance
+	private PathEvent               peeked;
+	private int                     peekedEnd;
+	private byte[]                  peekedPath;
+
+	public MappedEventJournal(final Path directory) {
+		this(directory, DEFAULT_SEGMENT_SIZE);
+	}
+
+	public MappedEventJournal(final Path directory, final int segmentSize) {
+		this.directory = directory;
+		this.segmentSize = Math.max(segmentSize, HEADER_SIZE + MAX_PATH_LENGTH);
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of events appended and not consumed yet.
+	 */
+	public long size() {
+		return size;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public void append(final PathEvent event) throws IOException {
+		final byte[] path = event.path.toString().getBytes(StandardCharsets.UTF_8);
+		if (path.length > MAX_PATH_LENGTH) {
+			throw new IOException("Path too long for the event journal: " + event.path);
+		}
+		Segment tail = segments.peekLast();
+		if (tail == null || tail.buffer.remaining() < HEADER_SIZE + path.length) {
+			tail = newSegment();
+		}
+
+		final int shared = commonPrefixLength(tail.lastWritten, path);
+		tail.buffer.putShort((short) shared);
+		tail.buffer.putShort((short) (path.length - shared));
+		tail.buffer.put(ExtendedWatchEventKinds.toCode(event.kind));
+		tail.buffer.put(path, shared, path.length - shared);
+		tail.lastWritten = path;
+		size++;
+	}
+
+	/**
+	 * Returns the oldest event without consuming it, or null if the journal is empty.
+	 */
+	public PathEvent peek() throws IOException {
+		if (peeked != null || size == 0) {
+			return peeked;
+		}
+		Segment head = segments.peekFirst();
+		while (head.readPosition == head.buffer.position()) {
+			// Fully read: a newer segment holds the rest
+			discard(segments.pollFirst());
+			head = segments.peekFirst();
+		}
+
+		final MappedByteBuffer buffer = head.buffer;
+		final int shared = Short.toUnsignedInt(buffer.getShort(head.readPosition));
+		final int suffixLength = Short.toUnsignedInt(buffer.getShort(head.readPosition + 2));
+		final WatchEvent.Kind<?> kind = ExtendedWatchEventKinds.fromCode(buffer.get(head.readPosition + 4));
+		if (shared > head.lastRead.length || kind == null) {
+			throw new IOException("Corrupted event journal segment " + head.file);
+		}
+		final byte[] path = Arrays.copyOf(head.lastRead, shared + suffixLength);
+		for (int i = 0; i < suffixLength; i++) {
+			path[shared + i] = buffer.get(head.readPosition + HEADER_SIZE + i);
+		}
+
+		peekedPath = path;
+		peekedEnd = head.readPosition + HEADER_SIZE + suffixLength;
+		peeked = PathEvent.builder()
+				.path(Paths.get(new String(path, StandardCharsets.UTF_8)))
+				.kind(kind)
+				.build();
+		return peeked;
+	}
+
+	/**
+	 * Consumes the event returned by the last {@link #peek()}.
+	 */
+	public void advance() {
+		if (peeked == null) {
+			throw new IllegalStateException("No event peeked");
+		}
+		final Segment head = segments.peekFirst();
+		head.readPosition = peekedEnd;
+		head.lastRead = peekedPath;
+		peeked = null;
+		size--;
+		if (size == 0) {
+			// Start over from a single empty segment
+			while (segments.size() > 1) {
+				discard(segments.pollFirst());
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		while (!segments.isEmpty()) {
+			discard(segments.pollFirst());
+		}
+		size = 0;
+		peeked = null;
+	}
+
+	private Segment newSegment() throws IOException {
+		Files.createDirectories(directory);
+		final Path file = directory.resolve(String.format("events-%08d.journal", nextSegmentId++));
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			// The mapping stays valid once the channel is closed
+			final Segment segment = new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+			segments.addLast(segment);
+			return segment;
+		}
+	}
+
+	private static void discard(final Segment segment) {
+		try {
+			Files.deleteIfExists(segment.file);
+		} catch (final IOException e) {
+			segment.file.toFile().deleteOnExit();
+		}
+	}
+
+	private static int commonPrefixLength(final byte[] previous, final byte[] path) {
+		final int max = Math.min(previous.length, path.length);
+		int i = 0;
+		while (i < max && previous[i] == path[i]) {
+			i++;
+		}
+		return i;
+	}
+
+	private static final class Segment {
+		final Path             file;
+		final MappedByteBuffer buffer;
+		int                    readPosition;
+		byte[]                 lastWritten = new byte[0];
+		byte[]                 lastRead    = new byte[0];
+
+		Segment(final Path file, final MappedByteBuffer buffer) {
+			this.file = file;
+			this.buffer = buffer;
+		}
+	}
+}
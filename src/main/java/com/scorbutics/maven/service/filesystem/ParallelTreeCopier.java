@@ -0,0 +1,157 @@
+package com.scorbutics.maven.service.filesystem;
+
+import com.scorbutics.maven.service.filesystem.source.FileSystemSourceReader;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Fork/join directory tree copier.
+ * <p>
+ * Each directory is a task: it creates its target directory, forks its subdirectories, then copies its own files in batches.
+ * Subdirectory tasks are forked first so that idle workers steal them and create the target directories ahead of the file copies.
+ * <p>
+ * The copies block their worker: at most the pool parallelism of them run at once, and a directory waiting for its
+ * subtasks helps running them rather than parking its worker.
+ */
+public class ParallelTreeCopier implements AutoCloseable {
+
+	private static final int DEFAULT_PARALLELISM = 8;
+	private static final int FILE_BATCH_SIZE = 32;
+
+	private final FileSystemSourceReader  sourceReader;
+	private final FileSystemCommonActions targetActions;
+	private final ForkJoinPool            pool;
+
+	public ParallelTreeCopier(final FileSystemSourceReader sourceReader, final FileSystemCommonActions targetActions) {
+		this(sourceReader, targetActions, DEFAULT_PARALLELISM);
+	}
+
+	public ParallelTreeCopier(final FileSystemSourceReader sourceReader, final FileSystemCommonActions targetActions, final int parallelism) {
+		this.sourceReader = sourceReader;
+		this.targetActions = targetActions;
+		this.pool = new ForkJoinPool(Math.max(parallelism, 1));
+	}
+
+	/**
+	 * Copies the whole {@code source} tree into {@code target}.
+	 * Every file is attempted even if some fail: the first error is thrown once the copy is over, the others are suppressed into it.
+	 */
+	public void copy(final Path source, final Path target, final StandardCopyOption... options) throws IOException {
+		copy(source, target, directory -> false, options);
+	}
+
+	/**
+	 * Copies the {@code source} tree into {@code target}, leaving out the {@code excluded} subdirectories.
+	 */
+	public void copy(final Path source, final Path target, final Predicate<Path> excluded, final StandardCopyOption... options) throws IOException {
+		final Queue<IOException> errors = new ConcurrentLinkedQueue<>();
+		pool.invoke(new DirectoryTask(source, source, target, excluded, options, errors));
+
+		final IOException first = errors.poll();
+		if (first != null) {
+			errors.forEach(first::addSuppressed);
+			throw first;
+		}
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	private class DirectoryTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Path                 root;
+		private final Path                 directory;
+		private final Path                 target;
+		private final Predicate<Path>      excluded;
+		private final StandardCopyOption[] options;
+		private final Queue<IOException>   errors;
+
+		DirectoryTask(final Path root, final Path directory, final Path target, final Predicate<Path> excluded, final StandardCopyOption[] options, final Queue<IOException> errors) {
+			this.root = root;
+			this.directory = directory;
+			this.target = target;
+			this.excluded = excluded;
+			this.options = options;
+			this.errors = errors;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				targetActions.makeDirectoryOrThrow(resolveTarget(directory));
+			} catch (final IOException e) {
+				// Nothing can be copied below a directory that could not be created
+				errors.add(e);
+				return;
+			}
+
+			final List<Path> subdirectories = new ArrayList<>();
+			final List<Path> files = new ArrayList<>();
+			try {
+				// With a max depth of 1, direct children (including directories) are all reported through visitFile
+				sourceReader.walkTree(directory, 1, new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+						if (!attrs.isDirectory()) {
+							files.add(file);
+						} else if (!excluded.test(file)) {
+							subdirectories.add(file);
+						}
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+						errors.add(exc);
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			} catch (final IOException e) {
+				errors.add(e);
+				return;
+			}
+
+			final List<ForkJoinTask<?>> subtasks = new ArrayList<>();
+			subdirectories.forEach(subdirectory -> subtasks.add(new DirectoryTask(root, subdirectory, target, excluded, options, errors).fork()));
+			for (int i = 0; i < files.size(); i += FILE_BATCH_SIZE) {
+				subtasks.add(new FileBatchTask(this, files.subList(i, Math.min(i + FILE_BATCH_SIZE, files.size()))).fork());
+			}
+			subtasks.forEach(ForkJoinTask::join);
+		}
+
+		Path resolveTarget(final Path path) {
+			return target.resolve(root.relativize(path).toString());
+		}
+	}
+
+	private class FileBatchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final DirectoryTask parent;
+		private final List<Path>    files;
+
+		FileBatchTask(final DirectoryTask parent, final List<Path> files) {
+			this.parent = parent;
+			this.files = files;
+		}
+
+		@Override
+		protected void compute() {
+			for (final Path file : files) {
+				try {
+					targetActions.feedStreamInFile(sourceReader.streamRead(file), parent.resolveTarget(file), parent.options);
+				} catch (final IOException e) {
+					parent.errors.add(e);
+				}
+			}
+		}
+	}
+}
@@ -1,8 +1,6 @@
 package com.scorbutics.maven.service.filesystem;
 
 import com.scorbutics.maven.exception.FileWatcherException;
-import com.scorbutics.maven.service.filesystem.source.*;
-import com.scorbutics.maven.service.filesystem.target.*;
 import com.scorbutics.maven.util.*;
 
 import lombok.AllArgsConstructor;
@@ -11,6 +9,7 @@ import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.function.*;
 import java.util.stream.*;
 
 import org.apache.maven.plugin.logging.*;
@@ -20,7 +19,7 @@ public class RecursiveDirectoryWalker {
 
     private FileWalker walker;
 
-    public Stream<Path> readRecursive(final Path sourcePath, final int maxDepth, final Set<Path> excludedSubtrees) throws FileWatcherException {
+    public Stream<Path> readRecursive(final Path sourcePath, final int maxDepth, final Predicate<Path> excludedSubtrees) throws FileWatcherException {
         // Ensure any exception during the directory traversal throws a runtime exception
         return safeReadRecursive(sourcePath, maxDepth, excludedSubtrees)
 				.failAfter(FileWatcherException::new);
@@ -31,7 +30,7 @@ public class RecursiveDirectoryWalker {
      *
      * @param root
      */
-	public SafeStream<Path, IOException> safeReadRecursive(final Path root, final int maxDepth, final Set<Path> excludedSubtrees) {
+	public SafeStream<Path, IOException> safeReadRecursive(final Path root, final int maxDepth, final Predicate<Path> excludedSubtrees) {
 		final List<SafeStream.Try<Path, IOException>> results = new ArrayList<>();
 
 		try {
@@ -39,7 +38,7 @@ public class RecursiveDirectoryWalker {
 				@Override
 				public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
 					// As soon as we find an excluded root, skip all its subtree
-					if (excludedSubtrees != null && excludedSubtrees.contains(dir)) {
+					if (excludedSubtrees != null && excludedSubtrees.test(dir)) {
 						return FileVisitResult.SKIP_SUBTREE;
 					}
 					results.add( SafeStream.Try.success(dir));
@@ -60,14 +59,14 @@ public class RecursiveDirectoryWalker {
 		return new SafeStream<>(results.stream());
 	}
 
-	public void walk(final Log logger, final Path root, final int maxDepth, final Set<Path> excludedSubtrees, final FileVisitor<? super Path> visitor) {
+	public void walk(final Log logger, final Path root, final int maxDepth, final Predicate<Path> excludedSubtrees, final FileVisitor<? super Path> visitor) {
 		try {
 			walker.walkTree( root, maxDepth, new SimpleFileVisitor<Path>() {
 
 				@Override
 				public FileVisitResult preVisitDirectory( final Path dir, final BasicFileAttributes attrs ) {
 					// As soon as we find an excluded root, skip all its subtree
-					if ( excludedSubtrees != null && excludedSubtrees.contains( dir ) ) {
+					if ( excludedSubtrees != null && excludedSubtrees.test( dir ) ) {
 						return FileVisitResult.SKIP_SUBTREE;
 					}
 					try {
@@ -103,24 +102,4 @@ public class RecursiveDirectoryWalker {
 		}
 
 	}
-
-	public void copyFolderRecursive(final FileSystemSourceReader sourceAction, final FileSystemTargetAction targetAction, final Path source, final Path target, final StandardCopyOption... options)
-			throws IOException {
-		walker.walkTree(source, Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
-
-			@Override
-			public FileVisitResult preVisitDirectory( final Path dir, final BasicFileAttributes attrs)
-					throws IOException {
-				targetAction.makeDirectoryOrThrow(target.resolve(source.relativize(dir).toString()));
-				return FileVisitResult.CONTINUE;
-			}
-
-			@Override
-			public FileVisitResult visitFile( final Path file, final BasicFileAttributes attrs)
-					throws IOException {
-				targetAction.feedStreamInFile( sourceAction.streamRead(file), target.resolve(source.relativize(file).toString()), options);
-				return FileVisitResult.CONTINUE;
-			}
-		});
-	}
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import org.apache.maven.plugin.logging.Log;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -16,6 +17,8 @@ public class Unzipper {
     private final FileSystemSourceReader fileSystemSourceReader;
     private final HashSet<String> nestedUnpackNames;
     private final Log logger;
+    // Directories already created during the current extraction, to avoid one makeDirectoryOrThrow per extracted file
+    private final Set<Path> createdDirectories = ConcurrentHashMap.newKeySet();
 
     public Unzipper(final FileSystemSourceReader fileSystemSourceReader, final FileSystemTargetAction fileSystemTargetAction, final Collection<String> nestedUnpackNames, final Log logger) {
         this.fileSystemSourceReader = fileSystemSourceReader;
@@ -35,6 +38,8 @@ public class Unzipper {
     public void unzipArtifact(final Path fileZip, final Path target) throws IOException {
         try (final InputStream is = this.fileSystemSourceReader.streamRead(fileZip)) {
             deepExtract(is, target, 0);
+        } finally {
+            createdDirectories.clear();
         }
     }
 
@@ -56,7 +61,7 @@ public class Unzipper {
 			public FileVisitResult onDirectoryFound( final Path directoryPath )
 					throws
 					IOException {
-				fileSystemTargetAction.makeDirectoryOrThrow(directoryPath);
+				makeDirectoryOnce(directoryPath);
 				return FileVisitResult.CONTINUE;
 			}
 
@@ -183,7 +188,7 @@ public class Unzipper {
      */
     private void extractFile(final InputStream bufferedIs, final Path outputPath) throws IOException {
         // Ensure the parent directory exists
-        this.fileSystemTargetAction.makeDirectoryOrThrow(outputPath.getParent());
+        makeDirectoryOnce(outputPath.getParent());
 
         // Write the file content to disk
         try (final BufferedOutputStream bos = new BufferedOutputStream(this.fileSystemTargetAction.streamWrite(outputPath))) {
@@ -195,6 +200,14 @@ public class Unzipper {
         }
     }
 
+    private void makeDirectoryOnce(final Path directory) throws IOException {
+        if (createdDirectories.contains(directory)) {
+            return;
+        }
+        this.fileSystemTargetAction.makeDirectoryOrThrow(directory);
+        createdDirectories.add(directory);
+    }
+
     /**
      * Checks if the given stream is a valid zip file without consuming it.
      *
@@ -234,7 +247,7 @@ public class Unzipper {
 						IOException {
 					if ( directoryPath.startsWith( subFolderOrFilePath.toString() + "/" ) ) {
 						final Path targetPath = relativizeOutputDir == null ? outputDir.resolve( directoryPath ) : relativizeOutputDir.relativize( outputDir.resolve( directoryPath ) );
-						fileSystemTargetAction.makeDirectoryOrThrow( targetPath );
+						makeDirectoryOnce( targetPath );
 						return FileVisitResult.CONTINUE;
 					}
 					return FileVisitResult.SKIP_SUBTREE;
@@ -262,6 +275,8 @@ public class Unzipper {
 					return FileVisitResult.CONTINUE;
 				}
 			} );
+		} finally {
+			createdDirectories.clear();
 		}
 	}
 
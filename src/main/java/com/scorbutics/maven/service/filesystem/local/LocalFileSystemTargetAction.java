@@ -28,6 +28,11 @@ public class LocalFileSystemTargetAction implements FileSystemTargetAction {
         return new FileOutputStream(file.toFile());
     }
 
+    @Override
+    public InputStream streamRead(final Path file) throws IOException {
+        return Files.newInputStream(file);
+    }
+
     @Override
     public void makeDirectoryOrThrow(final Path path) throws IOException {
         LocalFileCommonActions.makeDirectoryOrThrow(path);
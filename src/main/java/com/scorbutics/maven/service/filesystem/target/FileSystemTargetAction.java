@@ -14,5 +14,7 @@ public interface FileSystemTargetAction extends FileWalker, FileSystemCommonActi
 
     OutputStream streamWrite(Path file) throws FileNotFoundException;
 
+    InputStream streamRead(Path file) throws IOException;
+
     void moveFile(Path source, Path destination);
 }
\ No newline at end of file
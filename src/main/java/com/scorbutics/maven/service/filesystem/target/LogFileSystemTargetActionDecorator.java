@@ -43,6 +43,11 @@ public class LogFileSystemTargetActionDecorator implements FileSystemTargetActio
         return this.fileSystemTargetAction.streamWrite(file);
     }
 
+    @Override
+    public InputStream streamRead(final Path file) throws IOException {
+        return this.fileSystemTargetAction.streamRead(file);
+    }
+
     @Override
     public void makeDirectoryOrThrow(final Path path) throws IOException {
         logger.debug("Making directory " + path);
@@ -0,0 +1,16 @@
+package com.scorbutics.maven.service.hotswap;
+
+public enum ClassChange {
+	/**
+	 * Same behaviour: the bytecode is identical, only debug information may differ.
+	 */
+	IDENTICAL,
+	/**
+	 * Only method bodies changed: the class can be redefined in place.
+	 */
+	BODY_ONLY,
+	/**
+	 * The class shape changed (hierarchy, members, modifiers, annotations, constants): the archive must be redeployed.
+	 */
+	STRUCTURAL
+}
@@ -0,0 +1,76 @@
+package com.scorbutics.maven.service.hotswap;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Classifies the change between two versions of a class file, to choose between doing nothing, a HotSwap or a redeployment.
+ * <p>
+ * Shapes are compared with every constant pool reference resolved, so a mere reordering of the constant pool is not
+ * seen as a change. Method codes are only compared when both constant pools are byte-identical, as their operands are
+ * constant pool indexes: otherwise the change is at least considered as {@link ClassChange#BODY_ONLY}.
+ */
+public final class ClassFileComparator {
+
+	private ClassFileComparator() {
+	}
+
+	/**
+	 * @param previous the class file currently deployed, or null if there is none (new class)
+	 * @param current  the new class file
+	 */
+	public static ClassChange compare(final byte[] previous, final byte[] current) {
+		if (previous == null) {
+			return ClassChange.STRUCTURAL;
+		}
+		if (Arrays.equals(previous, current)) {
+			return ClassChange.IDENTICAL;
+		}
+
+		final ClassFileReader previousClass;
+		final ClassFileReader currentClass;
+		try {
+			previousClass = new ClassFileReader(previous);
+			currentClass = new ClassFileReader(current);
+		} catch (final IOException e) {
+			// Unable to tell: the safe choice
+			return ClassChange.STRUCTURAL;
+		}
+
+		if (!previousClass.getClassName().equals(currentClass.getClassName())
+				|| !previousClass.getShape().equals(currentClass.getShape())
+				|| !haveSameFields(previousClass.getFields(), currentClass.getFields())
+				|| !haveSameMethodShapes(previousClass.getMethods(), currentClass.getMethods())) {
+			return ClassChange.STRUCTURAL;
+		}
+
+		if (previousClass.hasSameConstantPool(currentClass)
+				&& previousClass.getMethods().values().stream()
+						.allMatch(method -> method.hasSameCode(currentClass.getMethods().get(method.key)))) {
+			return ClassChange.IDENTICAL;
+		}
+		return ClassChange.BODY_ONLY;
+	}
+
+	private static boolean haveSameFields(final Collection<ClassFileReader.Member> previous, final Collection<ClassFileReader.Member> current) {
+		if (previous.size() != current.size()) {
+			return false;
+		}
+		final Iterator<ClassFileReader.Member> currentIterator = current.iterator();
+		for (final ClassFileReader.Member field : previous) {
+			final ClassFileReader.Member currentField = currentIterator.next();
+			if (!field.key.equals(currentField.key) || !field.shape.equals(currentField.shape)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean haveSameMethodShapes(final Map<String, ClassFileReader.Member> previous, final Map<String, ClassFileReader.Member> current) {
+		if (!previous.keySet().equals(current.keySet())) {
+			return false;
+		}
+		return previous.values().stream()
+				.allMatch(method -> method.shape.equals(current.get(method.key).shape));
+	}
+}
@@ -0,0 +1,368 @@
+package com.scorbutics.maven.service.hotswap;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+/**
+ * Parses a class file into what matters to compare two versions of a class: its shape (hierarchy, members, annotations)
+ * with every constant pool reference resolved, and the raw code of its methods.
+ * <p>
+ * Debug attributes (line numbers, local variables, source file) and stack map frames are skipped.
+ */
+class ClassFileReader {
+
+	private static final int MAGIC = 0xCAFEBABE;
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELD_REF = 9;
+	private static final int CONSTANT_METHOD_REF = 10;
+	private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+
+	// Attributes that are part of the class shape as seen by the JVM or by the application server
+	private static final Set<String> SHAPE_ATTRIBUTES = new HashSet<>(Arrays.asList(
+			"RuntimeVisibleAnnotations",
+			"RuntimeVisibleParameterAnnotations",
+			"NestHost",
+			"NestMembers",
+			"PermittedSubclasses",
+			"Record"
+	));
+
+	/**
+	 * A field or a method.
+	 */
+	static class Member {
+		final String key;
+		final List<String> shape = new ArrayList<>();
+		int maxStack;
+		int maxLocals;
+		byte[] code;
+		byte[] exceptionTable;
+
+		Member(final String key) {
+			this.key = key;
+		}
+
+		boolean hasSameCode(final Member other) {
+			return maxStack == other.maxStack
+					&& maxLocals == other.maxLocals
+					&& Arrays.equals(code, other.code)
+					&& Arrays.equals(exceptionTable, other.exceptionTable);
+		}
+	}
+
+	private final ByteBuffer buffer;
+	private final Object[]   constantPool;
+	private final ByteBuffer rawConstantPool;
+	private final String     className;
+	private final List<String> shape = new ArrayList<>();
+	private final Map<String, Member> fields = new LinkedHashMap<>();
+	private final Map<String, Member> methods = new HashMap<>();
+
+	ClassFileReader(final byte[] classFile) throws IOException {
+		this.buffer = ByteBuffer.wrap(classFile);
+		try {
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Not a class file");
+			}
+			u2(); // minor version
+			u2(); // major version
+
+			final int constantPoolStart = buffer.position();
+			this.constantPool = readConstantPool();
+			this.rawConstantPool = ByteBuffer.wrap(classFile, constantPoolStart, buffer.position() - constantPoolStart).slice();
+
+			final int accessFlags = u2();
+			this.className = className(u2());
+			shape.add("access " + accessFlags);
+			shape.add("extends " + className(u2()));
+			final int interfaces = u2();
+			for (int i = 0; i < interfaces; i++) {
+				shape.add("implements " + className(u2()));
+			}
+
+			final int fieldCount = u2();
+			for (int i = 0; i < fieldCount; i++) {
+				final Member field = readMember();
+				fields.put(field.key, field);
+			}
+			final int methodCount = u2();
+			for (int i = 0; i < methodCount; i++) {
+				final Member method = readMember();
+				methods.put(method.key, method);
+			}
+			readAttributes(shape, null);
+		} catch (final BufferUnderflowException | ClassCastException | IndexOutOfBoundsException e) {
+			throw new IOException("Malformed class file: " + e, e);
+		}
+	}
+
+	/**
+	 * Returns the internal name of the class, such as {@code com/example/Foo$Bar}.
+	 */
+	String getClassName() {
+		return className;
+	}
+
+	List<String> getShape() {
+		return shape;
+	}
+
+	/**
+	 * Fields in declaration order: the JVM does not accept a reordering of fields.
+	 */
+	Collection<Member> getFields() {
+		return fields.values();
+	}
+
+	Map<String, Member> getMethods() {
+		return methods;
+	}
+
+	/**
+	 * Returns true if both constant pools are byte-identical, in which case the raw method codes can be compared directly.
+	 */
+	boolean hasSameConstantPool(final ClassFileReader other) {
+		return rawConstantPool.equals(other.rawConstantPool);
+	}
+
+	private Member readMember() {
+		final int accessFlags = u2();
+		final String name = utf8(u2());
+		final String descriptor = utf8(u2());
+		final Member member = new Member(name + descriptor);
+		member.shape.add("access " + accessFlags);
+		readAttributes(member.shape, member);
+		return member;
+	}
+
+	private void readAttributes(final List<String> shapeOut, final Member member) {
+		final int count = u2();
+		for (int i = 0; i < count; i++) {
+			final String name = utf8(u2());
+			final int length = buffer.getInt();
+			final int end = buffer.position() + length;
+			if (member != null && "Code".equals(name)) {
+				readCode(member);
+			} else if (member != null && "ConstantValue".equals(name)) {
+				// Static fields are not re-initialized by a redefinition: a new constant value is a structural change
+				shapeOut.add("ConstantValue " + constant(u2()));
+			} else if (SHAPE_ATTRIBUTES.contains(name)) {
+				shapeOut.add(name + " " + readShapeAttribute(name));
+			}
+			buffer.position(end);
+		}
+	}
+
+	private void readCode(final Member member) {
+		member.maxStack = u2();
+		member.maxLocals = u2();
+		member.code = bytes(buffer.getInt());
+		member.exceptionTable = bytes(u2() * 8);
+		// Remaining attributes (LineNumberTable, LocalVariableTable, StackMapTable) are debug info or derived from the code
+	}
+
+	private String readShapeAttribute(final String name) {
+		final StringBuilder value = new StringBuilder();
+		switch (name) {
+			case "NestHost":
+				value.append(className(u2()));
+				break;
+			case "NestMembers":
+			case "PermittedSubclasses":
+				final int classes = u2();
+				for (int i = 0; i < classes; i++) {
+					value.append(className(u2())).append(' ');
+				}
+				break;
+			case "Record":
+				final int components = u2();
+				for (int i = 0; i < components; i++) {
+					value.append(utf8(u2())).append(utf8(u2())).append(' ');
+					final int attributes = u2();
+					for (int j = 0; j < attributes; j++) {
+						u2();
+						buffer.position(buffer.position() + buffer.getInt());
+					}
+				}
+				break;
+			case "RuntimeVisibleParameterAnnotations":
+				final int parameters = buffer.get() & 0xFF;
+				for (int i = 0; i < parameters; i++) {
+					value.append('(');
+					readAnnotations(value);
+					value.append(')');
+				}
+				break;
+			default:
+				readAnnotations(value);
+				break;
+		}
+		return value.toString();
+	}
+
+	private void readAnnotations(final StringBuilder value) {
+		final int annotations = u2();
+		for (int i = 0; i < annotations; i++) {
+			readAnnotation(value);
+		}
+	}
+
+	private void readAnnotation(final StringBuilder value) {
+		value.append('@').append(utf8(u2())).append('(');
+		final int pairs = u2();
+		for (int i = 0; i < pairs; i++) {
+			value.append(utf8(u2())).append('=');
+			readElementValue(value);
+			value.append(',');
+		}
+		value.append(')');
+	}
+
+	private void readElementValue(final StringBuilder value) {
+		final char tag = (char) (buffer.get() & 0xFF);
+		value.append(tag);
+		switch (tag) {
+			case 'e':
+				value.append(utf8(u2())).append('.').append(utf8(u2()));
+				break;
+			case 'c':
+				value.append(utf8(u2()));
+				break;
+			case '@':
+				readAnnotation(value);
+				break;
+			case '[':
+				final int values = u2();
+				value.append('{');
+				for (int i = 0; i < values; i++) {
+					readElementValue(value);
+					value.append(',');
+				}
+				value.append('}');
+				break;
+			default:
+				value.append(constant(u2()));
+				break;
+		}
+	}
+
+	private Object[] readConstantPool() throws IOException {
+		final int count = u2();
+		final Object[] entries = new Object[count];
+		for (int i = 1; i < count; i++) {
+			final int tag = buffer.get() & 0xFF;
+			switch (tag) {
+				case CONSTANT_UTF8:
+					entries[i] = readUtf8();
+					break;
+				case CONSTANT_CLASS:
+					entries[i] = new ClassEntry(u2());
+					break;
+				case CONSTANT_STRING:
+					entries[i] = new StringEntry(u2());
+					break;
+				case CONSTANT_INTEGER:
+					entries[i] = buffer.getInt();
+					break;
+				case CONSTANT_FLOAT:
+					entries[i] = buffer.getFloat();
+					break;
+				case CONSTANT_LONG:
+					entries[i] = buffer.getLong();
+					// 8-byte constants take two entries
+					i++;
+					break;
+				case CONSTANT_DOUBLE:
+					entries[i] = buffer.getDouble();
+					i++;
+					break;
+				case CONSTANT_METHOD_TYPE:
+				case CONSTANT_MODULE:
+				case CONSTANT_PACKAGE:
+					u2();
+					break;
+				case CONSTANT_METHOD_HANDLE:
+					buffer.position(buffer.position() + 3);
+					break;
+				case CONSTANT_FIELD_REF:
+				case CONSTANT_METHOD_REF:
+				case CONSTANT_INTERFACE_METHOD_REF:
+				case CONSTANT_NAME_AND_TYPE:
+				case CONSTANT_DYNAMIC:
+				case CONSTANT_INVOKE_DYNAMIC:
+					buffer.getInt();
+					break;
+				default:
+					throw new IOException("Unknown constant pool tag " + tag + " at index " + i);
+			}
+		}
+		return entries;
+	}
+
+	private String readUtf8() throws IOException {
+		final int length = u2();
+		final byte[] encoded = new byte[length + 2];
+		encoded[0] = (byte) (length >> 8);
+		encoded[1] = (byte) length;
+		buffer.get(encoded, 2, length);
+		// Class files use the modified UTF-8 of DataInput
+		return new DataInputStream(new ByteArrayInputStream(encoded)).readUTF();
+	}
+
+	private String utf8(final int index) {
+		return (String) constantPool[index];
+	}
+
+	private String className(final int index) {
+		return index == 0 ? "" : utf8(((ClassEntry) constantPool[index]).nameIndex);
+	}
+
+	private String constant(final int index) {
+		final Object entry = constantPool[index];
+		if (entry instanceof StringEntry) {
+			return '"' + utf8(((StringEntry) entry).utf8Index) + '"';
+		}
+		return String.valueOf(entry);
+	}
+
+	private int u2() {
+		return buffer.getShort() & 0xFFFF;
+	}
+
+	private byte[] bytes(final int length) {
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	private static final class ClassEntry {
+		final int nameIndex;
+
+		ClassEntry(final int nameIndex) {
+			this.nameIndex = nameIndex;
+		}
+	}
+
+	private static final class StringEntry {
+		final int utf8Index;
+
+		StringEntry(final int utf8Index) {
+			this.utf8Index = utf8Index;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.scorbutics.maven.service.hotswap;
+
+import java.io.*;
+import java.util.*;
+
+import org.apache.maven.plugin.logging.*;
+
+import com.scorbutics.maven.exception.*;
+
+import lombok.*;
+
+/**
+ * Pushes changed classes to a running server through its JDWP agent, the same way an IDE does a HotSwap.
+ * <p>
+ * The connection is only held for the duration of a redefinition: the JDWP agent accepting a single debugger,
+ * an IDE can still attach between two redefinitions.
+ */
+public class HotSwapper {
+
+	private static final String HOST = "localhost";
+	private static final int CONNECT_TIMEOUT_MS = 1000;
+	private static final int READ_TIMEOUT_MS = 10000;
+
+	private final int debugPort;
+	@NonNull
+	private final Log logger;
+
+	@Builder
+	public HotSwapper(final int debugPort, final Log logger) {
+		this.debugPort = debugPort;
+		this.logger = logger;
+	}
+
+	/**
+	 * Returns true while a redefinition connection is open, to tell it apart from an IDE debugger.
+	 */
+	public static boolean isConnected() {
+		return JdwpClient.hasOpenConnections();
+	}
+
+	/**
+	 * Redefines the loaded classes matching the given class files, in every class loader they are loaded in.
+	 * Classes not loaded yet are skipped: they will be loaded from the deployed files when first used.
+	 *
+	 * @return the number of redefined classes
+	 * @throws HotSwapException if the VM is not reachable or rejected the redefinition (for instance on a structural change):
+	 *                          in that case, no class has been redefined
+	 */
+	public synchronized int hotSwap(final Collection<byte[]> classFiles) throws HotSwapException {
+		try (final JdwpClient client = JdwpClient.connect(HOST, debugPort, CONNECT_TIMEOUT_MS, READ_TIMEOUT_MS)) {
+			try {
+				final Map<Long, byte[]> redefinitions = new LinkedHashMap<>();
+				for (final byte[] classFile : classFiles) {
+					final String className = new ClassFileReader(classFile).getClassName();
+					client.classesBySignature("L" + className + ";")
+							.forEach(referenceTypeId -> redefinitions.put(referenceTypeId, classFile));
+				}
+
+				if (!redefinitions.isEmpty()) {
+					client.redefineClasses(redefinitions);
+				}
+				logger.debug("HotSwap: " + redefinitions.size() + " loaded classes redefined out of " + classFiles.size() + " class files");
+				return redefinitions.size();
+			} finally {
+				dispose(client);
+			}
+		} catch (final IOException e) {
+			throw new HotSwapException("Unable to reach JDWP agent on port " + debugPort + ": " + e.getMessage(), e);
+		}
+	}
+
+	private void dispose(final JdwpClient client) {
+		// Closing the connection ends the session anyway: a failure must not hide the outcome of the redefinition
+		try {
+			client.dispose();
+		} catch (final IOException | HotSwapException e) {
+			logger.debug("Unable to dispose the JDWP session on port " + debugPort + ": " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package com.scorbutics.maven.service.hotswap;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import com.scorbutics.maven.exception.*;
+
+/**
+ * Minimal JDWP client, speaking the wire protocol directly: only the few commands needed to redefine classes are supported.
+ * <p>
+ * A JVM only accepts a single debugger connection at a time, so a connection must be kept as short as possible and
+ * {@link #dispose()}d once done.
+ */
+class JdwpClient implements Closeable {
+
+	private static final byte[] HANDSHAKE = "JDWP-Handshake".getBytes(StandardCharsets.US_ASCII);
+	private static final int HEADER_SIZE = 11;
+	private static final int REPLY_FLAG = 0x80;
+
+	private static final int VIRTUAL_MACHINE_COMMAND_SET = 1;
+	private static final int CLASSES_BY_SIGNATURE_COMMAND = 2;
+	private static final int DISPOSE_COMMAND = 6;
+	private static final int ID_SIZES_COMMAND = 7;
+	private static final int REDEFINE_CLASSES_COMMAND = 18;
+
+	private static final Map<Integer, String> ERROR_NAMES = new HashMap<>();
+	static {
+		ERROR_NAMES.put(21, "INVALID_CLASS");
+		ERROR_NAMES.put(60, "INVALID_CLASS_FORMAT");
+		ERROR_NAMES.put(61, "CIRCULAR_CLASS_DEFINITION");
+		ERROR_NAMES.put(62, "FAILS_VERIFICATION");
+		ERROR_NAMES.put(63, "ADD_METHOD_NOT_IMPLEMENTED");
+		ERROR_NAMES.put(64, "SCHEMA_CHANGE_NOT_IMPLEMENTED");
+		ERROR_NAMES.put(66, "HIERARCHY_CHANGE_NOT_IMPLEMENTED");
+		ERROR_NAMES.put(67, "DELETE_METHOD_NOT_IMPLEMENTED");
+		ERROR_NAMES.put(68, "UNSUPPORTED_VERSION");
+		ERROR_NAMES.put(69, "NAMES_DONT_MATCH");
+		ERROR_NAMES.put(70, "CLASS_MODIFIERS_CHANGE_NOT_IMPLEMENTED");
+		ERROR_NAMES.put(71, "METHOD_MODIFIERS_CHANGE_NOT_IMPLEMENTED");
+		ERROR_NAMES.put(99, "NOT_IMPLEMENTED");
+		ERROR_NAMES.put(112, "VM_DEAD");
+	}
+
+	// Connections opened by this process, so that they are not mistaken for an IDE debugger
+	private static final AtomicInteger OPEN_CONNECTIONS = new AtomicInteger();
+
+	private final Socket           socket;
+	private final DataInputStream  in;
+	private final DataOutputStream out;
+	private final AtomicBoolean    closed = new AtomicBoolean();
+	private int nextPacketId = 1;
+	private int referenceTypeIdSize = 8;
+
+	private JdwpClient(final Socket socket) throws IOException {
+		this.socket = socket;
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+	}
+
+	/**
+	 * Connects and handshakes with the JDWP agent listening on {@code host:port}.
+	 */
+	static JdwpClient connect(final String host, final int port, final int connectTimeoutMs, final int readTimeoutMs) throws IOException {
+		OPEN_CONNECTIONS.incrementAndGet();
+		final Socket socket = new Socket();
+		JdwpClient client = null;
+		try {
+			socket.connect(new InetSocketAddress(host, port), connectTimeoutMs);
+			socket.setSoTimeout(readTimeoutMs);
+			socket.setTcpNoDelay(true);
+			client = new JdwpClient(socket);
+			client.handshake();
+			client.readIdSizes();
+			return client;
+		} catch (final IOException e) {
+			if (client != null) {
+				client.close();
+			} else {
+				OPEN_CONNECTIONS.decrementAndGet();
+				socket.close();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns true while this process holds a JDWP connection.
+	 */
+	static boolean hasOpenConnections() {
+		return OPEN_CONNECTIONS.get() > 0;
+	}
+
+	/**
+	 * Returns the reference type ids of all the loaded classes matching the JNI {@code signature}, one per class loader.
+	 */
+	List<Long> classesBySignature(final String signature) throws IOException, HotSwapException {
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeString(new DataOutputStream(payload), signature);
+
+		final DataInputStream reply = command(CLASSES_BY_SIGNATURE_COMMAND, payload.toByteArray());
+		final int classes = reply.readInt();
+		final List<Long> referenceTypeIds = new ArrayList<>(classes);
+		for (int i = 0; i < classes; i++) {
+			reply.readByte(); // refTypeTag
+			referenceTypeIds.add(readId(reply, referenceTypeIdSize));
+			reply.readInt(); // status
+		}
+		return referenceTypeIds;
+	}
+
+	/**
+	 * Redefines all the given classes at once: either every class is redefined, or none is.
+	 */
+	void redefineClasses(final Map<Long, byte[]> classFilesByReferenceTypeId) throws IOException, HotSwapException {
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		final DataOutputStream data = new DataOutputStream(payload);
+		data.writeInt(classFilesByReferenceTypeId.size());
+		for (final Map.Entry<Long, byte[]> entry : classFilesByReferenceTypeId.entrySet()) {
+			writeId(data, entry.getKey(), referenceTypeIdSize);
+			data.writeInt(entry.getValue().length);
+			data.write(entry.getValue());
+		}
+		command(REDEFINE_CLASSES_COMMAND, payload.toByteArray());
+	}
+
+	/**
+	 * Ends the debugging session, the target VM resumes as if no debugger had ever been attached.
+	 */
+	void dispose() throws IOException, HotSwapException {
+		command(DISPOSE_COMMAND, new byte[0]);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed.compareAndSet(false, true)) {
+			OPEN_CONNECTIONS.decrementAndGet();
+			socket.close();
+		}
+	}
+
+	private void handshake() throws IOException {
+		out.write(HANDSHAKE);
+		out.flush();
+		final byte[] response = new byte[HANDSHAKE.length];
+		in.readFully(response);
+		if (!Arrays.equals(HANDSHAKE, response)) {
+			throw new IOException("Unexpected JDWP handshake response");
+		}
+	}
+
+	private void readIdSizes() throws IOException {
+		final DataInputStream reply;
+		try {
+			reply = command(ID_SIZES_COMMAND, new byte[0]);
+		} catch (final HotSwapException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+		reply.readInt(); // fieldID
+		reply.readInt(); // methodID
+		reply.readInt(); // objectID
+		referenceTypeIdSize = reply.readInt();
+	}
+
+	private DataInputStream command(final int command, final byte[] payload) throws IOException, HotSwapException {
+		final int id = nextPacketId++;
+		out.writeInt(HEADER_SIZE + payload.length);
+		out.writeInt(id);
+		out.writeByte(0);
+		out.writeByte(VIRTUAL_MACHINE_COMMAND_SET);
+		out.writeByte(command);
+		out.write(payload);
+		out.flush();
+
+		for (;;) {
+			final int length = in.readInt();
+			final int replyId = in.readInt();
+			final int flags = in.readUnsignedByte();
+			if ((flags & REPLY_FLAG) == 0) {
+				// Command packet sent by the VM (events): not requested, skipped
+				in.readFully(new byte[length - HEADER_SIZE + 2]);
+				continue;
+			}
+			final int errorCode = in.readUnsignedShort();
+			final byte[] data = new byte[length - HEADER_SIZE];
+			in.readFully(data);
+			if (replyId != id) {
+				continue;
+			}
+			if (errorCode != 0) {
+				throw new HotSwapException("JDWP command " + VIRTUAL_MACHINE_COMMAND_SET + "/" + command + " failed with error " + ERROR_NAMES.getOrDefault(errorCode, String.valueOf(errorCode)));
+			}
+			return new DataInputStream(new ByteArrayInputStream(data));
+		}
+	}
+
+	private static void writeString(final DataOutputStream data, final String value) throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+	}
+
+	private static long readId(final DataInputStream data, final int size) throws IOException {
+		long id = 0;
+		for (int i = 0; i < size; i++) {
+			id = (id << 8) | data.readUnsignedByte();
+		}
+		return id;
+	}
+
+	private static void writeId(final DataOutputStream data, final long id, final int size) throws IOException {
+		for (int i = size - 1; i >= 0; i--) {
+			data.writeByte((int) (id >>> (i * 8)));
+		}
+	}
+}
@@ -27,9 +27,17 @@ public class ProjectFileStructureAnalyzer {
         this.recursiveDirectoryWalker = new RecursiveDirectoryWalker(fileSystemTargetAction);
         this.computers = computers;
         this.logger = logger;
-		this.maxDeployedModulesDepthCheck = Math.min( Math.max( maxDeployedModulesDepthCheck, MIN_DEPTH_RECURSIVE_CHECK_ON_DEPLOYED_MODULES), MAX_DEPTH_RECURSIVE_CHECK_ON_DEPLOYED_MODULES ) ;
+		this.maxDeployedModulesDepthCheck = effectiveMaxDepth( maxDeployedModulesDepthCheck );
     }
 
+	/**
+	 * Returns the depth actually checked for a configured {@code maxDeployedModulesDepthCheck}: the directories of the
+	 * target are read down to one level below it.
+	 */
+	public static int effectiveMaxDepth( final int maxDeployedModulesDepthCheck ) {
+		return Math.min( Math.max( maxDeployedModulesDepthCheck, MIN_DEPTH_RECURSIVE_CHECK_ON_DEPLOYED_MODULES), MAX_DEPTH_RECURSIVE_CHECK_ON_DEPLOYED_MODULES );
+	}
+
     public Optional<ComputedProject> analyze(final MavenSession session, final Path target, final boolean shouldMapOnTargetFilesystem) {
         final Optional<ComputedProject> result = computeUsingMavenProject(session)
                 .map(config -> shouldMapOnTargetFilesystem ? rebuildHierarchyUsingTargetDeploymentsFilesystem(config, target) : createHierarchyDirectory(config, target));
@@ -25,7 +25,8 @@ public class ProjectPluginsAnalyzer implements ProjectComputer {
 	 * @return an optional computed project if all required plugin configurations are found and valid, empty otherwise
 	 */
 	public Optional<ComputedProject> compute(final List<MavenProject> allProjects) {
-		final List<XMLContainerPluginConfiguration> pluginConfigurations = allProjects.stream()
+		// Projects are parsed independently, in parallel; the collected list keeps the reactor order
+		final List<XMLContainerPluginConfiguration> pluginConfigurations = allProjects.parallelStream()
 				// Filter out projects that do not use packaging plugins
 				.filter(project -> !Packaging.excluded(project.getPackaging()))
 				.map(project -> {
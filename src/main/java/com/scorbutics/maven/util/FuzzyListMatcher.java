@@ -2,14 +2,36 @@ package com.scorbutics.maven.util;
 
 import org.apache.commons.text.similarity.LevenshteinDistance;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
+/**
+ * Pairs the items of two lists whose string forms are similar enough, by Levenshtein distance relative to the longest
+ * string.
+ * <p>
+ * The second list is indexed once: exact names are found by hash, and the Levenshtein distance is only computed for
+ * the names sharing enough trigrams with the searched one to possibly reach the threshold, and only up to the distance
+ * that still could.
+ */
 public class FuzzyListMatcher {
 
+    private static final int  GRAM_SIZE = 3;
+    // Pads the names so that their first and last characters are part of as many trigrams as the others
+    private static final char PADDING   = '\u0001';
+
+    /**
+     * Matches each item of {@code listA} with the most similar item of {@code listB}, the first one in case of a tie,
+     * if their similarity reaches {@code similarityThreshold}. Matched items are removed from {@code listA}, while an
+     * item of {@code listB} may match several items of {@code listA}.
+     */
     public static <T, U> Map<T, U> findAndRemoveMatches(
             final List<T> listA,
             final List<U> listB,
@@ -18,33 +40,17 @@ public class FuzzyListMatcher {
             final double similarityThreshold) {
 
         final Map<T, U> matches = new LinkedHashMap<>();
-        final LevenshteinDistance levenshtein = LevenshteinDistance.getDefaultInstance();
+        final Index index = new Index(listB.stream().map(stringifierB).toArray(String[]::new));
 
         final Iterator<T> iteratorA = listA.iterator();
 
         while (iteratorA.hasNext()) {
             final T itemA = iteratorA.next();
-            final String stringA = stringifierA.apply(itemA);
-            U bestMatch = null;
-            double bestSimilarity = 0.0;
-
-            // Find the best match in listB for current itemA
-            for (final U itemB : listB) {
-                final String stringB = stringifierB.apply(itemB);
-                final double similarity = calculateSimilarity(stringA, stringB, levenshtein);
-
-                if (similarity > bestSimilarity && similarity >= similarityThreshold) {
-                    bestSimilarity = similarity;
-                    bestMatch = itemB;
-                    if (similarity == 1.0) {
-                        break; // Perfect match found
-                    }
-                }
-            }
+            final int bestMatch = index.findBestMatch(stringifierA.apply(itemA), similarityThreshold);
 
 			// If a match is found, record it and remove from the input list
-            if (bestMatch != null) {
-                matches.put(itemA, bestMatch);
+            if (bestMatch >= 0) {
+                matches.put(itemA, listB.get(bestMatch));
                 iteratorA.remove();  // Remove from listA only
             }
         }
@@ -52,12 +58,119 @@ public class FuzzyListMatcher {
         return matches;
     }
 
-    private static double calculateSimilarity(final String s1, final String s2, final LevenshteinDistance levenshtein) {
-        final int maxLength = Math.max(s1.length(), s2.length());
+    private static double calculateSimilarity(final int distance, final int maxLength) {
         if (maxLength == 0) return 1.0;
-
-        final int distance = levenshtein.apply(s1, s2);
         return 1.0 - ((double) distance / maxLength);
     }
 
-}
\ No newline at end of file
+    private static final class Index {
+        private final String[]             names;
+        // First position of each name
+        private final Map<String, Integer> exact = new HashMap<>();
+        // Positions of the names containing each trigram, in ascending order
+        private final Map<Long, int[]>     postings = new HashMap<>();
+        private final int                  maxLength;
+        private final int[]                sharedGrams;
+
+        Index(final String[] names) {
+            this.names = names;
+            this.sharedGrams = new int[names.length];
+            final Map<Long, List<Integer>> positions = new HashMap<>();
+            int longest = 0;
+            for (int i = 0; i < names.length; i++) {
+                exact.putIfAbsent(names[i], i);
+                longest = Math.max(longest, names[i].length());
+                for (final long gram : grams(names[i])) {
+                    positions.computeIfAbsent(gram, k -> new ArrayList<>()).add(i);
+                }
+            }
+            this.maxLength = longest;
+            positions.forEach((gram, list) -> postings.put(gram, list.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        /*
+         * Returns the position of the best match, or -1 if none
+         */
+        int findBestMatch(final String name, final double threshold) {
+            final Integer exactMatch = exact.get(name);
+            if (exactMatch != null) {
+                return exactMatch;
+            }
+
+            // Count the trigrams shared with each name
+            final Set<Long> grams = grams(name);
+            Arrays.fill(sharedGrams, 0);
+            final List<Integer> candidates = new ArrayList<>();
+            for (final long gram : grams) {
+                final int[] positions = postings.get(gram);
+                if (positions == null) {
+                    continue;
+                }
+                for (final int position : positions) {
+                    if (sharedGrams[position]++ == 0) {
+                        candidates.add(position);
+                    }
+                }
+            }
+            // Each edit removes at most GRAM_SIZE trigrams: a name sharing none may still match a short enough one
+            if (grams.size() <= maxDistance(Math.max(name.length(), maxLength), threshold, 0.0) * GRAM_SIZE) {
+                candidates.clear();
+                for (int i = 0; i < names.length; i++) {
+                    candidates.add(i);
+                }
+            } else {
+                candidates.sort(null);
+            }
+
+            int bestMatch = -1;
+            double bestSimilarity = 0.0;
+            for (final int candidate : candidates) {
+                final String other = names[candidate];
+                final int maxLength = Math.max(name.length(), other.length());
+                final int maxDistance = maxDistance(maxLength, threshold, bestSimilarity);
+                if (maxDistance < 0
+                        || Math.abs(name.length() - other.length()) > maxDistance
+                        || sharedGrams[candidate] < grams.size() - maxDistance * GRAM_SIZE) {
+                    continue;
+                }
+                final int distance = new LevenshteinDistance(maxDistance).apply(name, other);
+                if (distance < 0) {
+                    continue;
+                }
+                final double similarity = calculateSimilarity(distance, maxLength);
+                if (similarity > bestSimilarity && similarity >= threshold) {
+                    bestSimilarity = similarity;
+                    bestMatch = candidate;
+                }
+            }
+            return bestMatch;
+        }
+
+        /*
+         * Returns the largest distance still giving a similarity above the best one and reaching the threshold, or -1
+         */
+        private static int maxDistance(final int maxLength, final double threshold, final double bestSimilarity) {
+            // Any larger distance gives a lower similarity than both
+            int distance = Math.min(maxLength, (int) ((1.0 - Math.max(threshold, bestSimilarity)) * maxLength) + 1);
+            while (distance >= 0) {
+                final double similarity = calculateSimilarity(distance, maxLength);
+                if (similarity > bestSimilarity && similarity >= threshold) {
+                    break;
+                }
+                distance--;
+            }
+            return distance;
+        }
+
+        private static Set<Long> grams(final String name) {
+            final Set<Long> grams = new HashSet<>();
+            final char[] padded = new char[name.length() + 2 * (GRAM_SIZE - 1)];
+            Arrays.fill(padded, PADDING);
+            name.getChars(0, name.length(), padded, GRAM_SIZE - 1);
+            for (int i = 0; i + GRAM_SIZE <= padded.length; i++) {
+                grams.add(((long) padded[i] << 32) | ((long) padded[i + 1] << 16) | padded[i + 2]);
+            }
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.scorbutics.maven.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Durations of the startup phases of a goal, measured from the start of its execution.
+ * <p>
+ * Phases may run concurrently: each one is listed with its start offset, so that the ones on the way to the goal being
+ * ready stand out. A phase still running when the timeline is printed is shown as such.
+ * <p>
+ * The background phases mostly wait for I/O: they run on threads of their own rather than on the common pool, which
+ * the parallel streams of the other phases use.
+ */
+public class StartupTimeline implements AutoCloseable {
+
+	private final long            originNs = System.nanoTime();
+	private final List<Phase>     phases   = new CopyOnWriteArrayList<>();
+	private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+		final Thread thread = new Thread(runnable, "StartupPhase");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Starts a phase, ended when the returned phase is closed.
+	 */
+	public Phase start(final String name) {
+		final Phase phase = new Phase(name, System.nanoTime());
+		phases.add(phase);
+		return phase;
+	}
+
+	public <T, E extends Exception> T measure(final String name, final PhaseSupplier<T, E> phase) throws E {
+		final Phase timed = start(name);
+		try {
+			return phase.get();
+		} finally {
+			timed.close();
+		}
+	}
+
+	public void measure(final String name, final Runnable phase) {
+		measure(name, () -> {
+			phase.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Runs a phase in the background.
+	 */
+	public <T> CompletableFuture<T> measureAsync(final String name, final Supplier<T> phase) {
+		return CompletableFuture.supplyAsync(() -> measure(name, phase::get), executor);
+	}
+
+	/**
+	 * Measures a phase already running in the background, until {@code phase} completes.
+	 */
+	public <T> CompletableFuture<T> measureCompletion(final String name, final CompletableFuture<T> phase) {
+		final Phase timed = start(name);
+		return phase.whenComplete((result, e) -> timed.close());
+	}
+
+	/**
+	 * Returns the executor of the background phases, for the ones measured by {@link #measureCompletion}.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Stops the threads of the background phases once the ones already started are complete.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	public void print(final Consumer<String> reporter) {
+		final long nowNs = System.nanoTime();
+		reporter.accept("Startup timeline:");
+		phases.stream()
+				.sorted(Comparator.comparingLong(phase -> phase.startNs))
+				.forEach(phase -> reporter.accept(format(phase)));
+		reporter.accept("Ready after " + toMs(nowNs - originNs) + " ms");
+	}
+
+	String format(final Phase phase) {
+		final long durationNs = phase.durationNs;
+		return String.format(Locale.ROOT, "  %-20s +%6d ms %10s", phase.name, toMs(phase.startNs - originNs),
+				durationNs == Phase.RUNNING ? "running" : toMs(durationNs) + " ms");
+	}
+
+	private static long toMs(final long ns) {
+		return TimeUnit.NANOSECONDS.toMillis(ns);
+	}
+
+	@FunctionalInterface
+	public interface PhaseSupplier<T, E extends Exception> {
+		T get() throws E;
+	}
+
+	public static final class Phase implements AutoCloseable {
+		private static final long RUNNING = -1;
+
+		private final    String name;
+		private final    long   startNs;
+		private volatile long   durationNs = RUNNING;
+
+		private Phase(final String name, final long startNs) {
+			this.name = name;
+			this.startNs = startNs;
+		}
+
+		@Override
+		public void close() {
+			if (durationNs == RUNNING) {
+				durationNs = System.nanoTime() - startNs;
+			}
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.scorbutics.maven.util;
+
+import java.nio.file.*;
+
+/**
+ * Per-project directory used to share small state files between the watcher and other Maven processes
+ * (for instance the build event extension running in another terminal).
+ */
+public final class StateDirectory {
+
+	private static final String ROOT_DIRECTORY = ".javaee-devtools";
+
+	private StateDirectory() {
+	}
+
+	/**
+	 * Returns {@code ~/.javaee-devtools/<project name>-<hash of the project path>}. The directory is not created.
+	 */
+	public static Path forProject(final Path projectDirectory) {
+		final Path normalized = projectDirectory.toAbsolutePath().normalize();
+		final Path name = normalized.getFileName();
+		return Paths.get(System.getProperty("user.home"), ROOT_DIRECTORY)
+				.resolve((name == null ? "root" : name.toString()) + "-" + Integer.toHexString(normalized.toString().hashCode()));
+	}
+}
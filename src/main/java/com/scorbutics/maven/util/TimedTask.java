@@ -2,44 +2,60 @@ package com.scorbutics.maven.util;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.function.*;
 
-import org.apache.maven.plugin.logging.*;
+import com.scorbutics.maven.util.timer.*;
 
 public class TimedTask<T> {
-	private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
-	private final Map<T, Object> locks = new ConcurrentHashMap<>();
-	private final Map<T, ScheduledFuture<?>> timers = new ConcurrentHashMap<>();
+	private final TimerWheel timerWheel;
+	private final Map<T, KeyTimer> timers = new ConcurrentHashMap<>();
 	private final long timeoutMillis;
 	private final Consumer<T> callback;
 
 	public TimedTask(final long timeoutMillis, final Consumer<T> callback) {
+		this(TimerWheel.shared(), timeoutMillis, callback);
+	}
+
+	public TimedTask(final TimerWheel timerWheel, final long timeoutMillis, final Consumer<T> callback) {
+		this.timerWheel = timerWheel;
 		this.timeoutMillis = timeoutMillis;
 		this.callback = callback;
 	}
 
 	public void overrideAndTrigger(final T key) {
-		// Get or create a lock object for this specific key
-		final Object lock = locks.computeIfAbsent(key, k -> new Object());
-
-		synchronized (lock) {
-			// Cancel and replace in one operation
-			timers.computeIfPresent( key, ( k, timer ) -> {
-				timer.cancel( false );
-				return null;
-			} );
-
-			// Schedule new timer
-			timers.put( key, scheduler.schedule(
-					() -> callback.accept(key),
-					timeoutMillis,
-					TimeUnit.MILLISECONDS
-			) );
+		// A trigger only pushes the deadline of the key debouncer forward, once fired a new one is started
+		timers.compute(key, (k, timer) -> {
+			final KeyTimer current = timer == null || timer.fired.get() ? newTimer(k) : timer;
+			current.debouncer.trigger();
+			return current;
+		});
+	}
+
+	private KeyTimer newTimer(final T key) {
+		final KeyTimer timer = new KeyTimer();
+		timer.debouncer = timerWheel.debouncer(timeoutMillis, () -> fire(key, timer));
+		return timer;
+	}
+
+	private void fire(final T key, final KeyTimer timer) {
+		// A trigger may re-arm the debouncer between its expiry and this run: it is only fired once, and unlinked before
+		// the callback so that the triggers from now on start a new one
+		if (!timer.fired.compareAndSet(false, true)) {
+			return;
 		}
+		timer.debouncer.cancel();
+		timers.remove(key, timer);
+		callback.accept(key);
 	}
 
 	public void shutdown() {
-		timers.values().forEach(timer -> timer.cancel(false));
-		scheduler.shutdown();
+		timers.values().forEach(timer -> timer.debouncer.cancel());
+		timers.clear();
+	}
+
+	private static final class KeyTimer {
+		private final AtomicBoolean fired = new AtomicBoolean();
+		private Debouncer debouncer;
 	}
-}
\ No newline at end of file
+}
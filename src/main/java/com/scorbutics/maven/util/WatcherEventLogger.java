@@ -14,6 +14,7 @@ import org.apache.maven.plugin.logging.*;
 
 import com.scorbutics.maven.service.event.watcher.files.observer.*;
 import com.scorbutics.maven.util.path.*;
+import com.scorbutics.maven.util.timer.*;
 
 import lombok.*;
 
@@ -41,13 +42,11 @@ public class WatcherEventLogger implements FileSystemEventObserver, DebuggerEven
 			PATH_COMPARATOR
 	);
 
-	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-
 	// Atomic flag for processing state
 	private final AtomicBoolean isProcessing = new AtomicBoolean(false);
 
-	private volatile ScheduledFuture<?> summaryTask;
-	private volatile ScheduledFuture<?> spinnerTask;
+	private final Debouncer summaryTask = TimerWheel.shared().debouncer(1000, this::finishProcessing);
+	private volatile Timeout spinnerTask;
 
 	private final Statistics stats = new Statistics();
 
@@ -61,6 +60,11 @@ public class WatcherEventLogger implements FileSystemEventObserver, DebuggerEven
         onFileEvent( StandardWatchEventKinds.ENTRY_MODIFY, fullPath);
     }
 
+	@Override
+	public void onSubtreeCreateEvent(final Path rootPath) {
+		onFileEvent( StandardWatchEventKinds.ENTRY_CREATE, rootPath);
+	}
+
 	@Override
 	public void onFileDeleteEvent(final Path fullPath) {
 		onFileEvent( StandardWatchEventKinds.ENTRY_DELETE, fullPath);
@@ -80,10 +84,8 @@ public class WatcherEventLogger implements FileSystemEventObserver, DebuggerEven
 
 	private void startProcessing() {
 		if (showProgress && isInteractiveTerminal()) {
-			spinnerTask = scheduler.scheduleAtFixedRate(
-					this::updateSpinner,
-					0, 150, TimeUnit.MILLISECONDS
-			);
+			updateSpinner();
+			spinnerTask = TimerWheel.shared().schedulePeriodic(this::updateSpinner, 150);
 		} else {
 			logger.info(" Processing...");
 		}
@@ -105,25 +107,15 @@ public class WatcherEventLogger implements FileSystemEventObserver, DebuggerEven
 	}
 
 	private void resetSummaryTimer() {
-		// Cancel previous task if exists
-		final ScheduledFuture<?> oldTask = summaryTask;
-		if (oldTask != null) {
-			oldTask.cancel(false);
-		}
-
-		// Schedule new summary task
-		summaryTask = scheduler.schedule(
-				this::finishProcessing,
-				1000,
-				TimeUnit.MILLISECONDS
-		);
+		// Only pushes the pending summary further, nothing is cancelled nor rescheduled
+		summaryTask.trigger();
 	}
 
 	private void finishProcessing() {
 		// Stop spinner first
-		final ScheduledFuture<?> currentSpinnerTask = spinnerTask;
+		final Timeout currentSpinnerTask = spinnerTask;
 		if (currentSpinnerTask != null) {
-			currentSpinnerTask.cancel(false);
+			currentSpinnerTask.cancel();
 		}
 
 		// Atomically snapshot and clear the accumulator
@@ -0,0 +1,176 @@
+package com.scorbutics.maven.util.path;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * Set of paths stored as a trie of interned path segments, each path being marked with caller-defined bit flags.
+ * <p>
+ * Nodes are plain int ids: a child is found through a single open-addressing table keyed by (parent id, segment id),
+ * so a lookup hashes one segment at a time and no {@link Path} is kept. Paths sharing a prefix share its nodes,
+ * which matters when the registered paths are the hundred thousand directories of a large source tree.
+ * <p>
+ * Thread-safe: lookups run concurrently, additions are exclusive.
+ */
+public class PathTrie {
+
+	private static final int ROOT_NODE = 0;
+	private static final int NO_NODE = -1;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, Integer> segmentIds = new HashMap<>();
+
+	// Child table: slot holds (parent id << 32 | segment id) -> child id + 1, 0 meaning an empty slot
+	private long[] childKeys = new long[INITIAL_CAPACITY];
+	private int[]  childValues = new int[INITIAL_CAPACITY];
+	private int    childCount;
+
+	private int[] nodeFlags = new int[INITIAL_CAPACITY];
+	private int   nodeCount = 1;
+
+	/**
+	 * Marks {@code path} with {@code flags}, in addition to the flags it already has.
+	 */
+	public void mark(final Path path, final int flags) {
+		lock.writeLock().lock();
+		try {
+			int node = ROOT_NODE;
+			final Path root = path.getRoot();
+			if (root != null) {
+				node = getOrCreateChild(node, root.toString());
+			}
+			for (int i = 0; i < path.getNameCount(); i++) {
+				node = getOrCreateChild(node, path.getName(i).toString());
+			}
+			nodeFlags[node] |= flags;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns true if {@code path} itself was marked with any of {@code flags}.
+	 */
+	public boolean isMarked(final Path path, final int flags) {
+		lock.readLock().lock();
+		try {
+			int node = ROOT_NODE;
+			final Path root = path.getRoot();
+			if (root != null) {
+				node = findChild(node, root.toString());
+			}
+			for (int i = 0; i < path.getNameCount() && node != NO_NODE; i++) {
+				node = findChild(node, path.getName(i).toString());
+			}
+			return node != NO_NODE && (nodeFlags[node] & flags) != 0;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns true if {@code path} or one of its ancestors was marked with any of {@code flags}.
+	 */
+	public boolean isMarkedOrUnder(final Path path, final int flags) {
+		lock.readLock().lock();
+		try {
+			int node = ROOT_NODE;
+			final Path root = path.getRoot();
+			if (root != null) {
+				node = findChild(node, root.toString());
+			}
+			for (int i = 0; node != NO_NODE; i++) {
+				if ((nodeFlags[node] & flags) != 0) {
+					return true;
+				}
+				if (i == path.getNameCount()) {
+					return false;
+				}
+				node = findChild(node, path.getName(i).toString());
+			}
+			return false;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of nodes, that is the number of distinct paths and path prefixes stored.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return nodeCount - 1;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private int findChild(final int parent, final String segment) {
+		final Integer segmentId = segmentIds.get(segment);
+		if (segmentId == null) {
+			return NO_NODE;
+		}
+		final long key = childKey(parent, segmentId);
+		final int mask = childKeys.length - 1;
+		for (int slot = slot(key, mask); childValues[slot] != 0; slot = (slot + 1) & mask) {
+			if (childKeys[slot] == key) {
+				return childValues[slot] - 1;
+			}
+		}
+		return NO_NODE;
+	}
+
+	private int getOrCreateChild(final int parent, final String segment) {
+		final int existing = findChild(parent, segment);
+		if (existing != NO_NODE) {
+			return existing;
+		}
+
+		final int segmentId = segmentIds.computeIfAbsent(segment, k -> segmentIds.size());
+		if (nodeCount == nodeFlags.length) {
+			nodeFlags = Arrays.copyOf(nodeFlags, nodeFlags.length * 2);
+		}
+		final int node = nodeCount++;
+		// Keep the table at most half full so that probe sequences stay short
+		if ((childCount + 1) * 2 > childKeys.length) {
+			resizeChildTable();
+		}
+		insertChild(childKey(parent, segmentId), node);
+		childCount++;
+		return node;
+	}
+
+	private void insertChild(final long key, final int node) {
+		final int mask = childKeys.length - 1;
+		int slot = slot(key, mask);
+		while (childValues[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		childKeys[slot] = key;
+		childValues[slot] = node + 1;
+	}
+
+	private void resizeChildTable() {
+		final long[] oldKeys = childKeys;
+		final int[] oldValues = childValues;
+		childKeys = new long[oldKeys.length * 2];
+		childValues = new int[oldValues.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != 0) {
+				insertChild(oldKeys[i], oldValues[i] - 1);
+			}
+		}
+	}
+
+	private static long childKey(final int parent, final int segmentId) {
+		return ((long) parent << 32) | (segmentId & 0xFFFFFFFFL);
+	}
+
+	private static int slot(final long key, final int mask) {
+		// Fibonacci hashing spreads the sequential ids over the whole table
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+}
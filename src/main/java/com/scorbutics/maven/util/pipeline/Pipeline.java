@@ -0,0 +1,80 @@
+package com.scorbutics.maven.util.pipeline;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+import com.scorbutics.maven.util.timer.*;
+
+/**
+ * The stages of a pipeline, in processing order, with a periodic report of their metrics.
+ * <p>
+ * Each report covers the items processed since the previous one: the stage with the highest latency or backpressure
+ * is the bottleneck to tune. Nothing is reported while the pipeline is idle.
+ */
+public class Pipeline implements AutoCloseable {
+
+	private final List<PipelineStage<?>> stages = new ArrayList<>();
+	private final Consumer<String>       reporter;
+	private List<StageMetrics>           lastMetrics;
+	private Timeout                      reportTask;
+
+	public Pipeline(final Consumer<String> reporter) {
+		this.reporter = reporter;
+	}
+
+	public Pipeline add(final Collection<? extends PipelineStage<?>> stages) {
+		this.stages.addAll(stages);
+		return this;
+	}
+
+	public List<StageMetrics> getMetrics() {
+		return stages.stream().map(PipelineStage::getMetrics).collect(Collectors.toList());
+	}
+
+	/**
+	 * Reports the metrics every {@code periodMs}, or never if it is not positive.
+	 */
+	public synchronized void startReporting(final long periodMs) {
+		if (periodMs <= 0 || reportTask != null) {
+			return;
+		}
+		lastMetrics = getMetrics();
+		reportTask = TimerWheel.shared().schedulePeriodic(this::report, periodMs);
+	}
+
+	@Override
+	public synchronized void close() {
+		if (reportTask != null) {
+			reportTask.cancel();
+		}
+		stages.forEach(PipelineStage::close);
+	}
+
+	private void report() {
+		final List<StageMetrics> current = getMetrics();
+		final List<StageMetrics> previous = lastMetrics;
+		lastMetrics = current;
+		if (IntStream.range(0, current.size()).allMatch(i -> current.get(i).getSubmitted() == previous.get(i).getSubmitted())) {
+			return;
+		}
+
+		reporter.accept("Pipeline stages since the last report:");
+		IntStream.range(0, current.size()).forEach(i -> reporter.accept(format(current.get(i).since(previous.get(i)))));
+	}
+
+	static String format(final StageMetrics metrics) {
+		final StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "  %-10s %7d items, latency %8.2f ms, processing %8.2f ms",
+				metrics.getName(), metrics.getProcessed(), metrics.getAverageLatencyMs(), metrics.getAverageProcessingMs()));
+		if (metrics.getWorkers() > 0) {
+			line.append(String.format(Locale.ROOT, ", queue %d/%d (max %d), %d workers", metrics.getQueued(), metrics.getCapacity(), metrics.getMaxQueued(), metrics.getWorkers()));
+		}
+		if (metrics.getBackpressureMs() > 0) {
+			line.append(", backpressure ").append(metrics.getBackpressureMs()).append(" ms");
+		}
+		if (metrics.getFailed() > 0) {
+			line.append(", ").append(metrics.getFailed()).append(" failed");
+		}
+		return line.toString();
+	}
+}
@@ -0,0 +1,181 @@
+package com.scorbutics.maven.util.pipeline;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+import org.apache.maven.plugin.logging.*;
+
+import lombok.*;
+
+/**
+ * A step of a processing pipeline: a bounded queue drained by its own workers, with its latency and throughput counters.
+ * <p>
+ * Submitting to a full queue blocks the caller, which slows the previous stage down instead of piling items up.
+ * With several workers, items of a same partition key always go to the same worker, so that they are handled in order.
+ * A stage with no worker runs its items on the submitting thread: it is only measured.
+ */
+public class PipelineStage<I> implements AutoCloseable {
+
+	@Getter
+	private final String                  name;
+	private final int                     capacity;
+	private final Consumer<I>             handler;
+	private final Function<I, ?>          partitioner;
+	private final Log                     logger;
+	private final List<BlockingQueue<Item<I>>> queues = new ArrayList<>();
+	private final List<Thread>            workers = new ArrayList<>();
+
+	private final LongAdder  submitted        = new LongAdder();
+	private final LongAdder  processed        = new LongAdder();
+	private final LongAdder  failed           = new LongAdder();
+	private final LongAdder  latencyNs        = new LongAdder();
+	private final LongAdder  processingNs     = new LongAdder();
+	private final LongAdder  backpressureNs   = new LongAdder();
+	private final AtomicInteger maxQueued     = new AtomicInteger();
+
+	@Builder
+	private PipelineStage(final String name, final int capacity, final int workers, final Consumer<I> handler, final Function<I, ?> partitioner, final Log logger) {
+		this.name = name;
+		this.handler = handler;
+		this.partitioner = partitioner;
+		this.logger = logger;
+		final int workerCount = Math.max(workers, 0);
+		// Each worker owns a share of the capacity
+		this.capacity = workerCount == 0 ? 0 : Math.max(capacity, workerCount);
+		for (int i = 0; i < workerCount; i++) {
+			final BlockingQueue<Item<I>> queue = new ArrayBlockingQueue<>(this.capacity / workerCount);
+			queues.add(queue);
+			final String threadName = "Pipeline-" + name + (workerCount > 1 ? "-" + (i + 1) : "");
+			final Thread worker = new Thread(() -> work(queue), threadName);
+			worker.setDaemon(true);
+			this.workers.add(worker);
+		}
+	}
+
+	public void start() {
+		workers.forEach(Thread::start);
+	}
+
+	/**
+	 * Queues {@code item}, waiting for room as long as needed.
+	 *
+	 * @return false if the calling thread was interrupted while waiting, in which case the item is not queued
+	 */
+	public boolean submit(final I item) {
+		return offer(item, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Queues {@code item}, waiting at most {@code timeoutMs} for room.
+	 *
+	 * @return false if the queue stayed full or the calling thread was interrupted, in which case the item is not queued
+	 */
+	public boolean offer(final I item, final long timeoutMs) {
+		if (queues.isEmpty()) {
+			submitted.increment();
+			process(item, System.nanoTime());
+			return true;
+		}
+		final BlockingQueue<Item<I>> queue = queueFor(item);
+		final Item<I> queued = new Item<>(item, System.nanoTime());
+		if (!queue.offer(queued)) {
+			final long start = System.nanoTime();
+			try {
+				final boolean accepted = timeoutMs == Long.MAX_VALUE ? put(queue, queued) : queue.offer(queued, timeoutMs, TimeUnit.MILLISECONDS);
+				if (!accepted) {
+					return false;
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} finally {
+				backpressureNs.add(System.nanoTime() - start);
+			}
+		}
+		submitted.increment();
+		updateMaxQueued();
+		return true;
+	}
+
+	public StageMetrics getMetrics() {
+		return StageMetrics.builder()
+				.name(name)
+				.workers(workers.size())
+				.capacity(capacity)
+				.queued(queues.stream().mapToInt(BlockingQueue::size).sum())
+				.maxQueued(maxQueued.get())
+				.submitted(submitted.sum())
+				.processed(processed.sum())
+				.failed(failed.sum())
+				.latencyNs(latencyNs.sum())
+				.processingNs(processingNs.sum())
+				.backpressureNs(backpressureNs.sum())
+				.build();
+	}
+
+	@Override
+	public void close() {
+		workers.forEach(Thread::interrupt);
+	}
+
+	private BlockingQueue<Item<I>> queueFor(final I item) {
+		if (queues.size() == 1 || partitioner == null) {
+			// Without a partition key, items are spread over the least loaded queue
+			return queues.size() == 1 ? queues.get(0) : queues.stream().max(Comparator.comparingInt(BlockingQueue::remainingCapacity)).get();
+		}
+		return queues.get((partitioner.apply(item).hashCode() & Integer.MAX_VALUE) % queues.size());
+	}
+
+	private static <T> boolean put(final BlockingQueue<T> queue, final T item) throws InterruptedException {
+		queue.put(item);
+		return true;
+	}
+
+	private void updateMaxQueued() {
+		final int size = queues.size() == 1 ? queues.get(0).size() : queues.stream().mapToInt(BlockingQueue::size).sum();
+		int max;
+		while (size > (max = maxQueued.get()) && !maxQueued.compareAndSet(max, size)) {
+			// Retry until the maximum is updated or exceeded by another thread
+		}
+	}
+
+	private void work(final BlockingQueue<Item<I>> queue) {
+		while (!Thread.currentThread().isInterrupted()) {
+			final Item<I> queued;
+			try {
+				queued = queue.take();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			process(queued.item, queued.submitTime);
+		}
+	}
+
+	private void process(final I item, final long submitTime) {
+		final long start = System.nanoTime();
+		try {
+			handler.accept(item);
+		} catch (final RuntimeException e) {
+			failed.increment();
+			logger.warn("Error in pipeline stage '" + name + "': " + e.getMessage(), e);
+		} finally {
+			final long end = System.nanoTime();
+			processingNs.add(end - start);
+			latencyNs.add(end - submitTime);
+			processed.increment();
+		}
+	}
+
+	private static final class Item<I> {
+		final I    item;
+		final long submitTime;
+
+		Item(final I item, final long submitTime) {
+			this.item = item;
+			this.submitTime = submitTime;
+		}
+	}
+}
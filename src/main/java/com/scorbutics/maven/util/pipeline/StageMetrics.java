@@ -0,0 +1,57 @@
+package com.scorbutics.maven.util.pipeline;
+
+import java.util.concurrent.*;
+
+import lombok.*;
+
+/**
+ * Counters of a {@link PipelineStage} at a point in time. Times are cumulated over all the processed items.
+ */
+@Builder
+@Value
+public class StageMetrics {
+	String name;
+	int    workers;
+	int    capacity;
+	int    queued;
+	int    maxQueued;
+	long   submitted;
+	long   processed;
+	long   failed;
+	// From submission to the end of processing
+	long   latencyNs;
+	long   processingNs;
+	// Time spent by the submitters waiting for room in the queue
+	long   backpressureNs;
+
+	/**
+	 * Returns what happened between {@code previous} and this snapshot, with the current queue state.
+	 */
+	public StageMetrics since(final StageMetrics previous) {
+		return StageMetrics.builder()
+				.name(name)
+				.workers(workers)
+				.capacity(capacity)
+				.queued(queued)
+				.maxQueued(maxQueued)
+				.submitted(submitted - previous.submitted)
+				.processed(processed - previous.processed)
+				.failed(failed - previous.failed)
+				.latencyNs(latencyNs - previous.latencyNs)
+				.processingNs(processingNs - previous.processingNs)
+				.backpressureNs(backpressureNs - previous.backpressureNs)
+				.build();
+	}
+
+	public double getAverageLatencyMs() {
+		return processed == 0 ? 0 : latencyNs / (double) processed / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public double getAverageProcessingMs() {
+		return processed == 0 ? 0 : processingNs / (double) processed / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	public long getBackpressureMs() {
+		return TimeUnit.NANOSECONDS.toMillis(backpressureNs);
+	}
+}
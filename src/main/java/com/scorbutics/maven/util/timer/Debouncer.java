@@ -0,0 +1,83 @@
+package com.scorbutics.maven.util.timer;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Runs a task once no {@link #trigger()} happened during the debounce delay.
+ * <p>
+ * A trigger only pushes the deadline forward: the single wheel entry of the debouncer is rescheduled lazily when it
+ * expires too early, so a burst of triggers allocates and cancels nothing.
+ */
+public final class Debouncer {
+
+	private static final long TICK_NS = TimerWheel.TICK_MS * 1_000_000L;
+
+	private final TimerWheel wheel;
+	private final long delayNs;
+	private final Runnable task;
+	private final TimerWheel.TimerEntry entry;
+	private final AtomicBoolean armed = new AtomicBoolean();
+	private volatile long deadline;
+	private volatile boolean cancelled;
+
+	Debouncer(final TimerWheel wheel, final long delayNs, final Runnable task) {
+		this.wheel = wheel;
+		this.delayNs = delayNs;
+		this.task = task;
+		this.entry = new TimerWheel.TimerEntry(wheel, null, 0) {
+			@Override
+			void expire() {
+				onExpire();
+			}
+		};
+	}
+
+	/**
+	 * (Re)starts the debounce delay.
+	 */
+	public void trigger() {
+		if (cancelled) {
+			return;
+		}
+		deadline = wheel.now() + delayNs;
+		if (armed.compareAndSet(false, true)) {
+			arm(deadline);
+		}
+	}
+
+	/**
+	 * Definitively stops the debouncer: a pending run is dropped and further triggers are ignored.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	private void arm(final long at) {
+		entry.deadline = at;
+		wheel.enqueue(entry);
+	}
+
+	private void onExpire() {
+		if (cancelled) {
+			armed.set(false);
+			return;
+		}
+
+		final long target = deadline;
+		if (target - wheel.now() >= TICK_NS) {
+			// Triggered again since armed: wait for the new deadline
+			arm(target);
+			return;
+		}
+
+		armed.set(false);
+		if (deadline != target) {
+			// Triggered concurrently: re-arm unless the trigger already did it
+			if (armed.compareAndSet(false, true)) {
+				arm(deadline);
+			}
+			return;
+		}
+		wheel.execute(task);
+	}
+}
@@ -0,0 +1,14 @@
+package com.scorbutics.maven.util.timer;
+
+/**
+ * Handle on a task scheduled in a {@link TimerWheel}.
+ */
+public interface Timeout {
+
+	/**
+	 * Cancels the task if it did not run yet. A periodic task stops being rescheduled.
+	 */
+	void cancel();
+
+	boolean isCancelled();
+}
@@ -0,0 +1,270 @@
+package com.scorbutics.maven.util.timer;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * Hashed timer wheel shared by all the debouncers of a watching session.
+ * <p>
+ * Scheduling and cancelling are O(1): callers only push entries onto lock-free queues, a single tick thread moves them
+ * into their bucket and expires the current bucket at each tick. Expired tasks run on a small worker pool,
+ * so a slow callback never delays the wheel itself.
+ * <p>
+ * The tick thread parks when no timeout is pending, so an idle session costs no wake-up.
+ */
+public final class TimerWheel {
+
+	static final long TICK_MS = 10;
+	private static final long TICK_NS = TimeUnit.MILLISECONDS.toNanos(TICK_MS);
+	private static final int WHEEL_SIZE = 512;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	private static final int MAX_WORKER_THREADS = 4;
+	private static final int WORKER_KEEP_ALIVE_S = 30;
+
+	private static volatile TimerWheel shared;
+
+	private final Bucket[] buckets = new Bucket[WHEEL_SIZE];
+	private final Queue<TimerEntry> pendingEntries = new ConcurrentLinkedQueue<>();
+	private final Queue<TimerEntry> cancelledEntries = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger scheduledCount = new AtomicInteger();
+	private final ThreadPoolExecutor workers;
+	private final Thread tickThread;
+	private final long startTime;
+	private long tick;
+
+	/**
+	 * Returns the wheel shared by every component of the current JVM.
+	 */
+	public static TimerWheel shared() {
+		TimerWheel instance = shared;
+		if (instance == null) {
+			synchronized (TimerWheel.class) {
+				instance = shared;
+				if (instance == null) {
+					instance = new TimerWheel();
+					shared = instance;
+				}
+			}
+		}
+		return instance;
+	}
+
+	private TimerWheel() {
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			buckets[i] = new Bucket();
+		}
+		final AtomicInteger workerIndex = new AtomicInteger();
+		this.workers = new ThreadPoolExecutor(MAX_WORKER_THREADS, MAX_WORKER_THREADS, WORKER_KEEP_ALIVE_S, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+			final Thread thread = new Thread(r, "TimerWheelWorker-" + workerIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.workers.allowCoreThreadTimeOut(true);
+		this.startTime = System.nanoTime();
+		this.tickThread = new Thread(this::run, "TimerWheel");
+		this.tickThread.setDaemon(true);
+		this.tickThread.start();
+	}
+
+	/**
+	 * Runs {@code task} once after {@code delayMs}.
+	 */
+	public Timeout schedule(final Runnable task, final long delayMs) {
+		final TimerEntry entry = new TimerEntry(this, task, 0);
+		entry.deadline = now() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+		enqueue(entry);
+		return entry;
+	}
+
+	/**
+	 * Runs {@code task} every {@code periodMs}, the first time after one period, until the returned timeout is cancelled.
+	 */
+	public Timeout schedulePeriodic(final Runnable task, final long periodMs) {
+		final long periodNs = TimeUnit.MILLISECONDS.toNanos(periodMs);
+		final TimerEntry entry = new TimerEntry(this, task, periodNs);
+		entry.deadline = now() + periodNs;
+		enqueue(entry);
+		return entry;
+	}
+
+	/**
+	 * Creates a debouncer running {@code task} once no trigger happened for {@code delayMs}.
+	 */
+	public Debouncer debouncer(final long delayMs, final Runnable task) {
+		return new Debouncer(this, TimeUnit.MILLISECONDS.toNanos(delayMs), task);
+	}
+
+	long now() {
+		return System.nanoTime() - startTime;
+	}
+
+	void enqueue(final TimerEntry entry) {
+		pendingEntries.add(entry);
+		if (scheduledCount.getAndIncrement() == 0) {
+			LockSupport.unpark(tickThread);
+		}
+	}
+
+	void cancel(final TimerEntry entry) {
+		cancelledEntries.add(entry);
+	}
+
+	void execute(final Runnable task) {
+		workers.execute(task);
+	}
+
+	private void run() {
+		tick = now() / TICK_NS;
+		while (!Thread.currentThread().isInterrupted()) {
+			if (scheduledCount.get() == 0) {
+				LockSupport.park(this);
+				// Buckets are all empty: re-align the wheel on the current time
+				tick = now() / TICK_NS;
+				continue;
+			}
+
+			waitForNextTick();
+			removeCancelledEntries();
+			transferPendingEntries();
+			expire(buckets[(int) (tick & WHEEL_MASK)]);
+			tick++;
+		}
+	}
+
+	private void waitForNextTick() {
+		final long deadline = (tick + 1) * TICK_NS;
+		long sleepNs;
+		while ((sleepNs = deadline - now()) > 0) {
+			LockSupport.parkNanos(this, sleepNs);
+		}
+	}
+
+	private void removeCancelledEntries() {
+		TimerEntry entry;
+		while ((entry = cancelledEntries.poll()) != null) {
+			if (entry.bucket != null) {
+				entry.bucket.remove(entry);
+				scheduledCount.decrementAndGet();
+			}
+		}
+	}
+
+	private void transferPendingEntries() {
+		TimerEntry entry;
+		while ((entry = pendingEntries.poll()) != null) {
+			if (entry.isCancelled()) {
+				scheduledCount.decrementAndGet();
+				continue;
+			}
+			final long deadlineTick = Math.max(entry.deadline / TICK_NS, tick);
+			entry.remainingRounds = (deadlineTick - tick) / WHEEL_SIZE;
+			buckets[(int) (deadlineTick & WHEEL_MASK)].add(entry);
+		}
+	}
+
+	private void expire(final Bucket bucket) {
+		TimerEntry entry = bucket.head;
+		while (entry != null) {
+			final TimerEntry next = entry.next;
+			if (entry.remainingRounds <= 0) {
+				bucket.remove(entry);
+				scheduledCount.decrementAndGet();
+				entry.expire();
+			} else {
+				entry.remainingRounds--;
+			}
+			entry = next;
+		}
+	}
+
+	/**
+	 * Doubly-linked list of entries, only ever touched by the tick thread.
+	 */
+	private static final class Bucket {
+		private TimerEntry head;
+		private TimerEntry tail;
+
+		void add(final TimerEntry entry) {
+			entry.bucket = this;
+			if (head == null) {
+				head = tail = entry;
+			} else {
+				tail.next = entry;
+				entry.prev = tail;
+				tail = entry;
+			}
+		}
+
+		void remove(final TimerEntry entry) {
+			if (entry.prev != null) {
+				entry.prev.next = entry.next;
+			} else {
+				head = entry.next;
+			}
+			if (entry.next != null) {
+				entry.next.prev = entry.prev;
+			} else {
+				tail = entry.prev;
+			}
+			entry.prev = null;
+			entry.next = null;
+			entry.bucket = null;
+		}
+	}
+
+	/**
+	 * A scheduled task, either one-shot or periodic. Subclasses may override {@link #expire()} to reuse the entry.
+	 */
+	static class TimerEntry implements Timeout {
+		private final TimerWheel wheel;
+		private final Runnable task;
+		private final long periodNs;
+		private final AtomicBoolean cancelled = new AtomicBoolean();
+
+		// Only touched by the tick thread once enqueued
+		long deadline;
+		long remainingRounds;
+		TimerEntry prev;
+		TimerEntry next;
+		Bucket bucket;
+
+		TimerEntry(final TimerWheel wheel, final Runnable task, final long periodNs) {
+			this.wheel = wheel;
+			this.task = task;
+			this.periodNs = periodNs;
+		}
+
+		void expire() {
+			if (isCancelled()) {
+				return;
+			}
+			if (periodNs <= 0) {
+				wheel.execute(task);
+				return;
+			}
+			// A periodic run is only rescheduled once over, so that two runs never overlap
+			wheel.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					deadline = Math.max(deadline + periodNs, wheel.now());
+					wheel.enqueue(this);
+				}
+			});
+		}
+
+		@Override
+		public void cancel() {
+			if (cancelled.compareAndSet(false, true)) {
+				wheel.cancel(this);
+			}
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled.get();
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.scorbutics.maven.model.packaging;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PluginConfigurationReaderTest {
+
+    @Test
+    public void testBindsConfigurationTree() throws Exception {
+        final Plugin plugin = new Plugin();
+        plugin.setConfiguration(Xpp3DomBuilder.build(new StringReader(
+                "<configuration>"
+                        + "<version>8</version>"
+                        + "<skinnyWars>true</skinnyWars>"
+                        + "<modules combine.children=\"append\">"
+                        + "<webModule><groupId>com.example</groupId><artifactId>web</artifactId><bundleFileName>web.war</bundleFileName></webModule>"
+                        + "<ejbModule><groupId>com.example</groupId><artifactId>core</artifactId></ejbModule>"
+                        + "</modules>"
+                        + "</configuration>")));
+        final MavenProject project = new MavenProject(new Model());
+
+        final EarXMLPluginConfiguration configuration = PluginConfigurationReader.fromPluginAndProject(EarXMLPluginConfiguration.class, plugin, project);
+
+        assertEquals(Integer.valueOf(8), configuration.getVersion());
+        assertTrue(configuration.getSkinnyWars());
+        assertEquals(2, configuration.getModules().size());
+        assertTrue(configuration.getModules().get(0) instanceof WarXMLModule);
+        assertEquals("web", configuration.getModules().get(0).getArtifactId());
+        assertEquals("web.war", configuration.getModules().get(0).getBundleFileName());
+        assertTrue(configuration.getModules().get(1) instanceof EjbXMLModule);
+        assertEquals("core", configuration.getModules().get(1).getArtifactId());
+    }
+}
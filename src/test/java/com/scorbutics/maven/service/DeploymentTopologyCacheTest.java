@@ -0,0 +1,104 @@
+package com.scorbutics.maven.service;
+
+import com.scorbutics.maven.model.Deployment;
+import com.scorbutics.maven.model.packaging.Packaging;
+import com.scorbutics.maven.service.filesystem.local.LocalFileSystemTargetAction;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeploymentTopologyCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testDeploymentTreeRoundTrip() {
+        final Deployment war = Deployment.builder()
+                .source(Paths.get("/project/web/target/web"))
+                .target(Paths.get("/server/app.ear/web.war"))
+                .base(Paths.get("/project/web"))
+                .packaging(Packaging.WAR)
+                .redeployOnChange(true)
+                .computed(true)
+                .depth(1)
+                .build();
+        final Map<Path, List<Deployment>> children = new HashMap<>();
+        children.put(war.getSource(), Collections.singletonList(war));
+        final Deployment ear = Deployment.builder()
+                .source(Paths.get("/project/ear/target/app"))
+                .target(Paths.get("/server/app.ear"))
+                .archive(Paths.get("/project/ear/target/app.ear"))
+                .packaging(Packaging.EAR)
+                .computed(true)
+                .depth(0)
+                .children(children)
+                .build();
+
+        final DeploymentTopologyCache cache = new DeploymentTopologyCache(tempDir, "test", "1.0", new SystemStreamLog());
+        cache.put("fingerprint", Collections.singletonList(ear));
+
+        assertFalse(cache.get("other").isPresent());
+        final Deployment cachedEar = cache.get("fingerprint").get().iterator().next();
+        assertEquals(ear.toString(), cachedEar.toString());
+        assertEquals(0, cachedEar.getDepth());
+        assertTrue(cachedEar.isComputed());
+        final Deployment cachedWar = cachedEar.getChildren().get(war.getSource()).get(0);
+        assertEquals(war.toString(), cachedWar.toString());
+        assertEquals(1, cachedWar.getDepth());
+        assertEquals(Paths.get("/server/app.ear/web.war"), cachedWar.getTarget());
+    }
+
+    @Test
+    public void testFingerprintFollowsReactorAndTarget() throws Exception {
+        final Path target = Files.createDirectories(tempDir.resolve("server"));
+        final Model model = new Model();
+        model.setGroupId("com.example");
+        model.setArtifactId("web");
+        model.setVersion("1.0");
+        model.setPackaging("war");
+        final List<MavenProject> projects = Collections.singletonList(new MavenProject(model));
+        final DeploymentTopologyCache cache = new DeploymentTopologyCache(tempDir, "test", "1.0", new SystemStreamLog());
+        final LocalFileSystemTargetAction targetAction = new LocalFileSystemTargetAction();
+
+        final String initial = cache.fingerprint(projects, null, targetAction, target, 5, "HOT_DEPLOYMENT");
+        assertEquals(initial, cache.fingerprint(projects, null, targetAction, target, 5, "HOT_DEPLOYMENT"));
+        assertNotEquals(initial, cache.fingerprint(projects, null, targetAction, target, 5, "UNIT_DEPLOYMENT"));
+
+        Files.createDirectories(target.resolve("web.war"));
+        final String deployed = cache.fingerprint(projects, null, targetAction, target, 5, "HOT_DEPLOYMENT");
+        assertNotEquals(initial, deployed);
+
+        model.setPackaging("jar");
+        final String repackaged = cache.fingerprint(projects, null, targetAction, target, 5, "HOT_DEPLOYMENT");
+        assertNotEquals(deployed, repackaged);
+
+        final DeploymentTopologyCache upgraded = new DeploymentTopologyCache(tempDir, "test", "1.1", new SystemStreamLog());
+        assertNotEquals(repackaged, upgraded.fingerprint(projects, null, targetAction, target, 5, "HOT_DEPLOYMENT"));
+    }
+
+    @Test
+    public void testFingerprintFollowsNestedDeployedModules() throws Exception {
+        final Path target = Files.createDirectories(tempDir.resolve("server").resolve("app.ear").resolve("web.war")).getParent().getParent();
+        final DeploymentTopologyCache cache = new DeploymentTopologyCache(tempDir, "test", "1.0", new SystemStreamLog());
+        final LocalFileSystemTargetAction targetAction = new LocalFileSystemTargetAction();
+
+        final String initial = cache.fingerprint(Collections.emptyList(), null, targetAction, target, 5);
+        Files.createDirectories(target.resolve("app.ear").resolve("web.war").resolve("sub"));
+        final String nested = cache.fingerprint(Collections.emptyList(), null, targetAction, target, 5);
+        assertNotEquals(initial, nested);
+
+        // Below the depth at which modules are matched
+        final String shallow = cache.fingerprint(Collections.emptyList(), null, targetAction, target, 2);
+        Files.createDirectories(target.resolve("app.ear/web.war/sub/a/b/c"));
+        assertEquals(shallow, cache.fingerprint(Collections.emptyList(), null, targetAction, target, 2));
+        assertNotEquals(nested, cache.fingerprint(Collections.emptyList(), null, targetAction, target, 5));
+    }
+}
@@ -0,0 +1,69 @@
+package com.scorbutics.maven.service.event.observer;
+
+import com.scorbutics.maven.model.OverflowPolicy;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObserverMailboxTest {
+
+    @Test
+    public void testSlowObserverDoesNotBlockPosting() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch delivered = new CountDownLatch(1);
+
+        try (final ObserverMailbox<List<Integer>> mailbox = new ObserverMailbox<>(received, 4, OverflowPolicy.DROP_OLDEST, new SystemStreamLog())) {
+            // The observer is stuck on the first notification
+            mailbox.post(observer -> {
+                awaitQuietly(release);
+                observer.add(0);
+            });
+            Thread.sleep(100);
+
+            final long start = System.nanoTime();
+            for (int i = 1; i <= 10; i++) {
+                final int value = i;
+                mailbox.post(observer -> observer.add(value));
+            }
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, "Posting waited for the observer");
+            mailbox.post(observer -> delivered.countDown());
+
+            release.countDown();
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            // Only the newest notifications are kept, in order
+            assertEquals(Arrays.asList(0, 8, 9, 10), received);
+            assertEquals(7, mailbox.getDroppedCount());
+        }
+    }
+
+    @Test
+    public void testBlockPolicyKeepsEveryNotification() throws InterruptedException {
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch delivered = new CountDownLatch(1);
+
+        try (final ObserverMailbox<List<Integer>> mailbox = new ObserverMailbox<>(received, 2, OverflowPolicy.BLOCK, new SystemStreamLog())) {
+            for (int i = 0; i < 100; i++) {
+                final int value = i;
+                mailbox.post(observer -> observer.add(value));
+            }
+            mailbox.post(observer -> delivered.countDown());
+
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertEquals(100, received.size());
+            assertEquals(0, mailbox.getDroppedCount());
+        }
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,8 +6,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -130,5 +138,53 @@ public class JdwpPortScannerTest {
         // Should not crash, result depends on system state
         assertNotNull(Boolean.valueOf(attached));
     }
-}
 
+    @Test
+    public void testScanFindsFakeJdwpServer() throws Exception {
+        try (final ServerSocket jdwpServer = startFakeServer("JDWP-Handshake");
+             final ServerSocket otherServer = startFakeServer("HTTP/1.1 400 ")) {
+            final int jdwpPort = jdwpServer.getLocalPort();
+            final int otherPort = otherServer.getLocalPort();
+            final JdwpPortScanner scanner = JdwpPortScanner.builder()
+                .logger(logger)
+                .scanRangeStart(Math.min(jdwpPort, otherPort) - 20)
+                .scanRangeEnd(Math.max(jdwpPort, otherPort) + 20)
+                .build();
+
+            final List<Integer> ports = scanner.scanForJdwpPorts();
+            assertTrue(ports.contains(jdwpPort), "Fake JDWP server should be found");
+            assertFalse(ports.contains(otherPort), "Non JDWP server should be ignored");
+
+            final Optional<Integer> first = scanner.findFirstJdwpPortAsync().get(10, TimeUnit.SECONDS);
+            assertEquals(Optional.of(jdwpPort), first);
+        }
+    }
+
+    private static ServerSocket startFakeServer(final String answer) throws IOException {
+        final ServerSocket server = new ServerSocket(0, 50, InetAddress.getByName("localhost"));
+        final Thread thread = new Thread(() -> {
+            while (!server.isClosed()) {
+                try (final Socket client = server.accept()) {
+                    final InputStream in = client.getInputStream();
+                    final byte[] handshake = new byte[14];
+                    int read = 0;
+                    while (read < handshake.length) {
+                        final int n = in.read(handshake, read, handshake.length - read);
+                        if (n < 0) {
+                            break;
+                        }
+                        read += n;
+                    }
+                    final OutputStream out = client.getOutputStream();
+                    out.write(answer.getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                } catch (final IOException e) {
+                    // Server closed or probe gave up
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return server;
+    }
+}
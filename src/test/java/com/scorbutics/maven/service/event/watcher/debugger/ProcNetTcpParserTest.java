@@ -0,0 +1,65 @@
+package com.scorbutics.maven.service.event.watcher.debugger;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcNetTcpParserTest {
+
+    private static final String HEADER = "  sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode\n";
+
+    // 5005 = 0x138D, 8080 = 0x1F90
+    private static final String TCP4 = HEADER
+            + "   0: 00000000:138D 00000000:0000 0A 00000000:00000000 00:00000000 00000000  1000        0 12345 1 0000000000000000 100 0 0 10 0\n"
+            + "   1: 0100007F:1F90 0100007F:D2B4 01 00000000:00000000 00:00000000 00000000  1000        0 12346 1 0000000000000000 20 4 30 10 -1\n"
+            + "   2: 0100007F:C350 0100007F:138D 06 00000000:00000000 00:00000000 00000000  1000        0 12347 1 0000000000000000 20 4 30 10 -1\n";
+
+    private static final String TCP6 = HEADER
+            + "   0: 0000000000000000FFFF00000100007F:138D 0000000000000000FFFF00000100007F:E2A6 01 00000000:00000000 00:00000000 00000000  1000        0 54321 1 0000000000000000 20 4 0 10 -1";
+
+    @Test
+    public void testListeningSocketIsNotAConnection() throws IOException {
+        assertFalse(parse(TCP4, 5005, false), "A listening socket is not an established connection");
+    }
+
+    @Test
+    public void testEstablishedLocalPort() throws IOException {
+        assertTrue(parse(TCP4, 8080, false), "Established connection on local port 8080");
+        assertFalse(parse(TCP4, 0xD2B4, false), "Remote port should not match in local-only mode");
+        assertTrue(parse(TCP4, 0xD2B4, true), "Remote port should match when requested");
+    }
+
+    @Test
+    public void testOtherStatesAreIgnored() throws IOException {
+        // TIME_WAIT (06) towards 5005
+        assertFalse(parse(TCP4, 5005, true), "A TIME_WAIT connection is not established");
+    }
+
+    @Test
+    public void testIpv6LastLineWithoutLineFeed() throws IOException {
+        assertTrue(parse(TCP6, 5005, false), "IPv6 established connection on the last line");
+        assertFalse(parse(TCP6, 5006, false), "No connection on port 5006");
+    }
+
+    @Test
+    public void testLinesSplitAcrossReads() throws IOException {
+        // Serve the table one byte at a time, so that every column straddles two reads
+        final byte[] content = TCP4.getBytes(StandardCharsets.US_ASCII);
+        final InputStream is = new ByteArrayInputStream(content) {
+            @Override
+            public synchronized int read(final byte[] b, final int off, final int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        assertTrue(new ProcNetTcpParser().hasEstablishedConnection(is, 8080, false), "Connection found across reads");
+    }
+
+    private static boolean parse(final String table, final int port, final boolean matchRemotePort) throws IOException {
+        return new ProcNetTcpParser().hasEstablishedConnection(new ByteArrayInputStream(table.getBytes(StandardCharsets.US_ASCII)), port, matchRemotePort);
+    }
+}
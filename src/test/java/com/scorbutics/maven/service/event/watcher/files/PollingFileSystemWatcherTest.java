@@ -0,0 +1,71 @@
+package com.scorbutics.maven.service.event.watcher.files;
+
+import com.scorbutics.maven.service.event.watcher.files.observer.FileSystemEventObserver;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PollingFileSystemWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testChangesAreReportedFromSnapshots() throws Exception {
+        final Path modified = Files.write(tempDir.resolve("modified.txt"), "a".getBytes());
+        final Path deleted = Files.write(tempDir.resolve("deleted.txt"), "a".getBytes());
+
+        final PollingFileSystemWatcher watcher = new PollingFileSystemWatcher(10, 1024, 100, new SystemStreamLog());
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        watcher.subscribeTechnicalFileEvent(new FileSystemEventObserver() {
+            @Override
+            public void onFileCreateEvent(final Path fullPath) {
+                events.add("create " + fullPath.getFileName());
+            }
+
+            @Override
+            public void onFileModifyEvent(final Path fullPath) {
+                events.add("modify " + fullPath.getFileName());
+            }
+
+            @Override
+            public void onFileDeleteEvent(final Path fullPath) {
+                events.add("delete " + fullPath.getFileName());
+            }
+        });
+        watcher.register(tempDir, StandardWatchEventKinds.ENTRY_CREATE);
+
+        final Thread producer = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    watcher.waitProduceFileEvents(null);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.setDaemon(true);
+        producer.start();
+        try {
+            Files.createDirectory(tempDir.resolve("created"));
+            Files.write(modified, "changed".getBytes());
+            Files.delete(deleted);
+
+            final Set<String> received = new HashSet<>();
+            while (received.size() < 3) {
+                final String event = events.poll(5, TimeUnit.SECONDS);
+                assertNotNull(event, "Missing events, received " + received);
+                received.add(event);
+            }
+            assertEquals(new HashSet<>(Arrays.asList("create created", "modify modified.txt", "delete deleted.txt")), received);
+        } finally {
+            producer.interrupt();
+        }
+    }
+}
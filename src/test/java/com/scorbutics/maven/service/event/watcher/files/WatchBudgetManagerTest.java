@@ -0,0 +1,66 @@
+package com.scorbutics.maven.service.event.watcher.files;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WatchBudgetManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testLeastActiveDirectoriesAreDemotedOverBudget() throws IOException {
+        final WatchBudgetManager budgetManager = new WatchBudgetManager(20, new SystemStreamLog());
+        try (final WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            final WatchBudgetManager.Registration registration = directory -> directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+            final List<Path> directories = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                final Path directory = Files.createDirectory(tempDir.resolve("dir" + i));
+                directories.add(directory);
+                budgetManager.register(directory, registration);
+                // The first directory stays active: it must never be demoted
+                budgetManager.onActivity(directories.get(0));
+            }
+
+            assertTrue(budgetManager.getWatchedCount() <= 20, "Watched: " + budgetManager.getWatchedCount());
+            assertEquals(30, budgetManager.getWatchedCount() + budgetManager.getPolledCount());
+            assertTrue(budgetManager.isPolling());
+
+            // Registering the active directory again must not need a demotion
+            final int polled = budgetManager.getPolledCount();
+            budgetManager.register(directories.get(0), registration);
+            assertEquals(polled, budgetManager.getPolledCount(), "The active directory was still watched");
+        }
+    }
+
+    @Test
+    public void testScannerReportsChanges() throws IOException {
+        final Path directory = Files.createDirectory(tempDir.resolve("polled"));
+        final Path modified = Files.write(directory.resolve("modified.txt"), "a".getBytes());
+        final Path deleted = Files.write(directory.resolve("deleted.txt"), "a".getBytes());
+
+        final PollingDirectoryScanner scanner = new PollingDirectoryScanner(new SystemStreamLog());
+        scanner.add(directory);
+        assertTrue(scanner.scan(event -> fail("Unexpected event " + event.kind + " " + event.path)).isEmpty());
+
+        Files.write(directory.resolve("created.txt"), "a".getBytes());
+        Files.write(modified, "changed".getBytes());
+        Files.delete(deleted);
+
+        final List<String> events = new ArrayList<>();
+        // Enough rounds for the in-place modification to be caught by a full comparison
+        for (int i = 0; i < PollingDirectoryScanner.FULL_SCAN_ROUNDS; i++) {
+            scanner.scan(event -> events.add(event.kind.name() + " " + event.path.getFileName()));
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList("ENTRY_CREATE created.txt", "ENTRY_MODIFY modified.txt", "ENTRY_DELETE deleted.txt")), new HashSet<>(events));
+        assertEquals(3, events.size(), "Each change is reported once: " + events);
+    }
+}
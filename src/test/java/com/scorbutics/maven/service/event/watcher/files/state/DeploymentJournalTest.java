@@ -0,0 +1,79 @@
+package com.scorbutics.maven.service.event.watcher.files.state;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeploymentJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testPendingEventsSurviveWithoutClose() throws Exception {
+        final DeploymentJournal crashed = DeploymentJournal.open(tempDir, new SystemStreamLog());
+        final long first = crashed.accepted(Paths.get("/src/a/First.class"), StandardWatchEventKinds.ENTRY_MODIFY);
+        final long second = crashed.accepted(Paths.get("/src/a"), ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE);
+        final long third = crashed.accepted(Paths.get("/src/b.txt"), StandardWatchEventKinds.ENTRY_DELETE);
+        crashed.completed(first);
+
+        // Reopened without any checkpoint since the records were appended
+        try (final DeploymentJournal recovered = DeploymentJournal.open(tempDir, new SystemStreamLog())) {
+            final Map<Long, PathEvent> pending = recovered.getPending();
+            assertEquals(Arrays.asList(second, third), new ArrayList<>(pending.keySet()));
+            assertEquals(Paths.get("/src/a"), pending.get(second).path);
+            assertEquals(ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE, pending.get(second).kind);
+            assertEquals(StandardWatchEventKinds.ENTRY_DELETE, pending.get(third).kind);
+            assertTrue(recovered.accepted(Paths.get("/src/c.txt"), StandardWatchEventKinds.ENTRY_CREATE) > third);
+        } finally {
+            crashed.close();
+        }
+    }
+
+    @Test
+    public void testJournalGrowsAndCompactsOnCheckpoint() throws Exception {
+        final List<Long> kept = new ArrayList<>();
+        try (final DeploymentJournal journal = DeploymentJournal.open(tempDir, new SystemStreamLog())) {
+            // Well beyond the initial size of the file
+            for (int i = 0; i < 100000; i++) {
+                final long sequence = journal.accepted(Paths.get("/workspace/project/target/classes/Class" + i + ".class"), StandardWatchEventKinds.ENTRY_CREATE);
+                if (i % 1000 == 0) {
+                    kept.add(sequence);
+                } else {
+                    journal.completed(sequence);
+                }
+            }
+            journal.checkpoint();
+            assertEquals(kept, new ArrayList<>(journal.getPending().keySet()));
+        }
+        try (final DeploymentJournal reopened = DeploymentJournal.open(tempDir, new SystemStreamLog())) {
+            assertEquals(kept, new ArrayList<>(reopened.getPending().keySet()));
+        }
+    }
+
+    @Test
+    public void testCheckpointsIgnoreOlderContentOfTheOtherFile() throws Exception {
+        final long kept;
+        try (final DeploymentJournal journal = DeploymentJournal.open(tempDir, new SystemStreamLog())) {
+            // Leaves many records in one file, then fewer ones rewritten over it by the following checkpoints
+            for (int i = 0; i < 1000; i++) {
+                journal.accepted(Paths.get("/src/Class" + i + ".class"), StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+            journal.checkpoint();
+            journal.getPending().keySet().forEach(journal::completed);
+            journal.checkpoint();
+            kept = journal.accepted(Paths.get("/src/Kept.class"), StandardWatchEventKinds.ENTRY_CREATE);
+            journal.checkpoint();
+        }
+        assertTrue(Files.exists(DeploymentJournal.journalFile(tempDir, 0)));
+        assertTrue(Files.exists(DeploymentJournal.journalFile(tempDir, 1)));
+        try (final DeploymentJournal reopened = DeploymentJournal.open(tempDir, new SystemStreamLog())) {
+            assertEquals(Collections.singletonList(kept), new ArrayList<>(reopened.getPending().keySet()));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.scorbutics.maven.service.event.watcher.files.state;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileEventCoalescerTest {
+
+    @Test
+    public void testShutdownFlushesPendingEvents() {
+        final List<CoalescedEvent> flushed = new ArrayList<>();
+        final FileEventCoalescer coalescer = new FileEventCoalescer(Duration.ofMinutes(1),
+                events -> flushed.addAll(events.collect(Collectors.toList())), new SystemStreamLog());
+        coalescer.submitEvent(PathEvent.builder().path(Paths.get("/src/A.class")).kind(StandardWatchEventKinds.ENTRY_CREATE).build());
+        coalescer.submitEvent(PathEvent.builder().path(Paths.get("/src/A.class")).kind(StandardWatchEventKinds.ENTRY_MODIFY).build());
+
+        coalescer.shutdown();
+
+        assertEquals(1, flushed.size());
+        assertEquals(Paths.get("/src/A.class"), flushed.get(0).getPath());
+        assertEquals(StandardWatchEventKinds.ENTRY_CREATE, flushed.get(0).getKind());
+    }
+
+    @Test
+    public void testDeletedThenRecreatedDirectoryIsCopiedAgain() {
+        final List<CoalescedEvent> flushed = new ArrayList<>();
+        final FileEventCoalescer coalescer = new FileEventCoalescer(Duration.ofMinutes(1),
+                events -> flushed.addAll(events.collect(Collectors.toList())), new SystemStreamLog());
+        coalescer.submitEvent(PathEvent.builder().path(Paths.get("/src/web")).kind(StandardWatchEventKinds.ENTRY_DELETE).build());
+        coalescer.submitEvent(PathEvent.builder().path(Paths.get("/src/web")).kind(ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE).build());
+
+        coalescer.shutdown();
+
+        assertEquals(1, flushed.size());
+        assertEquals(ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE, flushed.get(0).getKind());
+    }
+}
@@ -0,0 +1,36 @@
+package com.scorbutics.maven.service.event.watcher.files.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeldEventBufferTest {
+
+    @Test
+    public void testReleasedEventsKeepTheirJournalSequences() {
+        final HeldEventBuffer buffer = new HeldEventBuffer();
+        final Path modified = Paths.get("/src/web/A.class");
+        final Path created = Paths.get("/src/web/B.class");
+        buffer.hold(modified, StandardWatchEventKinds.ENTRY_MODIFY, 1, false);
+        buffer.hold(created, StandardWatchEventKinds.ENTRY_CREATE, 2, false);
+        buffer.hold(modified, StandardWatchEventKinds.ENTRY_MODIFY, 3, true);
+        buffer.hold(created, StandardWatchEventKinds.ENTRY_DELETE, 4, false);
+        buffer.hold(Paths.get("/src/other/C.class"), StandardWatchEventKinds.ENTRY_MODIFY, 5, false);
+
+        final List<CoalescedEvent> released = buffer.release(Paths.get("/src/web"));
+
+        assertEquals(2, released.size());
+        assertEquals(modified, released.get(0).getPath());
+        assertEquals(StandardWatchEventKinds.ENTRY_MODIFY, released.get(0).getKind());
+        assertEquals(Arrays.asList(1L, 3L), released.get(0).getSequences());
+        assertTrue(released.get(0).isRecovered());
+        // Created then deleted: nothing to apply, but its sequences still have to be completed
+        assertTrue(released.get(1).isNoOp());
+        assertEquals(Arrays.asList(2L, 4L), released.get(1).getSequences());
+        assertFalse(released.get(1).isRecovered());
+        assertFalse(buffer.isEmpty());
+    }
+}
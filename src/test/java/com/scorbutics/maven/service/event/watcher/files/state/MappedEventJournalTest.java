@@ -0,0 +1,64 @@
+package com.scorbutics.maven.service.event.watcher.files.state;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedEventJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testEventsAreReplayedInOrderAcrossSegments() throws Exception {
+        final Path root = Paths.get("/workspace/project/target/classes/com/example");
+        try (final MappedEventJournal journal = new MappedEventJournal(tempDir, 0)) {
+            // The smallest segment holds a few thousand of these records
+            final int count = 20000;
+            for (int i = 0; i < count; i++) {
+                journal.append(PathEvent.builder()
+                        .path(root.resolve("package" + (i / 100)).resolve("Class" + i + ".class"))
+                        .kind(i % 2 == 0 ? StandardWatchEventKinds.ENTRY_CREATE : ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE)
+                        .build());
+            }
+            assertEquals(count, journal.size());
+            assertTrue(countSegments() > 1);
+
+            for (int i = 0; i < count; i++) {
+                final PathEvent event = journal.peek();
+                assertEquals(root.resolve("package" + (i / 100)).resolve("Class" + i + ".class"), event.path);
+                assertEquals(i % 2 == 0 ? StandardWatchEventKinds.ENTRY_CREATE : ExtendedWatchEventKinds.ENTRY_SUBTREE_CREATE, event.kind);
+                assertSame(event, journal.peek());
+                journal.advance();
+            }
+            assertTrue(journal.isEmpty());
+            assertNull(journal.peek());
+            assertEquals(1, countSegments());
+        }
+        assertEquals(0, countSegments());
+    }
+
+    @Test
+    public void testAppendAfterDrainStartsFromTheSamePrefixState() throws Exception {
+        try (final MappedEventJournal journal = new MappedEventJournal(tempDir)) {
+            journal.append(PathEvent.builder().path(Paths.get("/a/b/c.txt")).kind(StandardWatchEventKinds.ENTRY_MODIFY).build());
+            journal.peek();
+            journal.advance();
+            journal.append(PathEvent.builder().path(Paths.get("/a/b/d.txt")).kind(StandardWatchEventKinds.ENTRY_DELETE).build());
+
+            final PathEvent event = journal.peek();
+            assertEquals(Paths.get("/a/b/d.txt"), event.path);
+            assertEquals(StandardWatchEventKinds.ENTRY_DELETE, event.kind);
+        }
+    }
+
+    private long countSegments() throws Exception {
+        try (final Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+}
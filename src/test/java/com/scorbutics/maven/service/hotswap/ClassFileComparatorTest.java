@@ -0,0 +1,78 @@
+package com.scorbutics.maven.service.hotswap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassFileComparatorTest {
+
+    private static final String BASE =
+            "public class Sample {\n" +
+            "    static final int LIMIT = 1;\n" +
+            "    private String name;\n" +
+            "    public String greet() { return \"Hello \" + name; }\n" +
+            "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRecompiledClassIsIdentical() throws IOException {
+        assertEquals(ClassChange.IDENTICAL, ClassFileComparator.compare(compile(BASE), compile(BASE)));
+    }
+
+    @Test
+    public void testDebugInfoOnlyChangeIsIdentical() throws IOException {
+        final String shiftedLines = "\n\n" + BASE;
+        assertEquals(ClassChange.IDENTICAL, ClassFileComparator.compare(compile(BASE), compile(shiftedLines)));
+    }
+
+    @Test
+    public void testMethodBodyChange() throws IOException {
+        final String changedBody = BASE.replace("\"Hello \"", "\"Goodbye \"");
+        assertEquals(ClassChange.BODY_ONLY, ClassFileComparator.compare(compile(BASE), compile(changedBody)));
+    }
+
+    @Test
+    public void testAddedMethodIsStructural() throws IOException {
+        final String addedMethod = BASE.replace("public String greet()", "public int size() { return 0; }\n    public String greet()");
+        assertEquals(ClassChange.STRUCTURAL, ClassFileComparator.compare(compile(BASE), compile(addedMethod)));
+    }
+
+    @Test
+    public void testAnnotationChangeIsStructural() throws IOException {
+        final String annotated = BASE.replace("public String greet()", "@Deprecated public String greet()");
+        assertEquals(ClassChange.STRUCTURAL, ClassFileComparator.compare(compile(BASE), compile(annotated)));
+    }
+
+    @Test
+    public void testConstantChangeIsStructural() throws IOException {
+        final String changedConstant = BASE.replace("LIMIT = 1", "LIMIT = 2");
+        assertEquals(ClassChange.STRUCTURAL, ClassFileComparator.compare(compile(BASE), compile(changedConstant)));
+    }
+
+    @Test
+    public void testNewOrUnreadableClassIsStructural() throws IOException {
+        assertEquals(ClassChange.STRUCTURAL, ClassFileComparator.compare(null, compile(BASE)));
+        assertEquals(ClassChange.STRUCTURAL, ClassFileComparator.compare(new byte[] { 1, 2, 3 }, compile(BASE)));
+    }
+
+    private byte[] compile(final String source) throws IOException {
+        final Path directory = Files.createTempDirectory(tempDir, "src");
+        final Path sourceFile = directory.resolve("Sample.java");
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler, "A JDK is required to run this test");
+        assertEquals(0, compiler.run(null, null, null, "-proc:none", "-g", "-d", directory.toString(), sourceFile.toString()));
+        return Files.readAllBytes(directory.resolve("Sample.class"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.scorbutics.maven.util;
+
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FuzzyListMatcherTest {
+
+    @Test
+    public void testBestMatchAndRemoval() {
+        final List<String> modules = new ArrayList<>(Arrays.asList("web-app.war", "core-ejb.jar", "unknown.jar"));
+        final List<String> directories = Arrays.asList("web-app-1.0.war", "core-ejb.jar", "web-app.war");
+
+        final Map<String, String> matches = FuzzyListMatcher.findAndRemoveMatches(modules, directories, Function.identity(), Function.identity(), 0.8);
+
+        assertEquals("web-app.war", matches.get("web-app.war"));
+        assertEquals("core-ejb.jar", matches.get("core-ejb.jar"));
+        assertFalse(matches.containsKey("unknown.jar"));
+        assertEquals(Collections.singletonList("unknown.jar"), modules);
+    }
+
+    @Test
+    public void testSameMatchesAsExhaustiveComparison() {
+        final Random random = new Random(42);
+        final String[] parts = {"web", "app", "core", "ejb", "api", "service", "common", "ui", "v2", "-", "_", ".war", ".jar", "1.0", "SNAPSHOT"};
+        for (int round = 0; round < 200; round++) {
+            final List<String> modules = randomNames(random, parts, 1 + random.nextInt(30));
+            final List<String> directories = randomNames(random, parts, random.nextInt(30));
+            // Also typos of the modules
+            for (final String module : modules) {
+                if (random.nextBoolean() && !module.isEmpty()) {
+                    final StringBuilder typo = new StringBuilder(module);
+                    typo.setCharAt(random.nextInt(typo.length()), (char) ('a' + random.nextInt(26)));
+                    directories.add(random.nextInt(directories.size() + 1), typo.toString());
+                }
+            }
+            final double threshold = random.nextBoolean() ? 0.8 : random.nextDouble();
+
+            final List<String> expectedRemaining = new ArrayList<>(modules);
+            final Map<String, String> expected = exhaustiveMatches(expectedRemaining, directories, threshold);
+            final List<String> remaining = new ArrayList<>(modules);
+            final Map<String, String> actual = FuzzyListMatcher.findAndRemoveMatches(remaining, directories, Function.identity(), Function.identity(), threshold);
+
+            assertEquals(expected, actual, "Modules " + modules + ", directories " + directories + ", threshold " + threshold);
+            assertEquals(expectedRemaining, remaining);
+        }
+    }
+
+    private static List<String> randomNames(final Random random, final String[] parts, final int count) {
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final StringBuilder name = new StringBuilder();
+            final int length = random.nextInt(5);
+            for (int j = 0; j < length; j++) {
+                name.append(parts[random.nextInt(parts.length)]);
+            }
+            names.add(name.toString());
+        }
+        return names;
+    }
+
+    /*
+     * Every pair compared with the full Levenshtein distance
+     */
+    private static Map<String, String> exhaustiveMatches(final List<String> listA, final List<String> listB, final double threshold) {
+        final Map<String, String> matches = new LinkedHashMap<>();
+        final Iterator<String> iteratorA = listA.iterator();
+        while (iteratorA.hasNext()) {
+            final String a = iteratorA.next();
+            String bestMatch = null;
+            double bestSimilarity = 0.0;
+            for (final String b : listB) {
+                final int maxLength = Math.max(a.length(), b.length());
+                final double similarity = maxLength == 0 ? 1.0 : 1.0 - ((double) LevenshteinDistance.getDefaultInstance().apply(a, b) / maxLength);
+                if (similarity > bestSimilarity && similarity >= threshold) {
+                    bestSimilarity = similarity;
+                    bestMatch = b;
+                    if (similarity == 1.0) {
+                        break;
+                    }
+                }
+            }
+            if (bestMatch != null) {
+                matches.put(a, bestMatch);
+                iteratorA.remove();
+            }
+        }
+        return matches;
+    }
+}
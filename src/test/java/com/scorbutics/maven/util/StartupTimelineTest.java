@@ -0,0 +1,47 @@
+package com.scorbutics.maven.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartupTimelineTest {
+
+    @Test
+    public void testPhasesListedByStart() {
+        final StartupTimeline timeline = new StartupTimeline();
+        final CompletableFuture<Integer> scan = new CompletableFuture<>();
+        final CompletableFuture<Integer> measuredScan = timeline.measureCompletion("scan", scan);
+        assertEquals("value", timeline.measure("compute", () -> "value"));
+        timeline.start("never ended");
+
+        final List<String> lines = new ArrayList<>();
+        timeline.print(lines::add);
+
+        assertEquals(5, lines.size());
+        assertEquals("Startup timeline:", lines.get(0));
+        assertTrue(lines.get(1).trim().startsWith("scan"));
+        assertTrue(lines.get(1).endsWith("running"));
+        assertTrue(lines.get(2).trim().startsWith("compute"));
+        assertTrue(lines.get(2).endsWith(" ms"));
+        assertTrue(lines.get(3).endsWith("running"));
+        assertTrue(lines.get(4).startsWith("Ready after "));
+
+        scan.complete(8000);
+        assertEquals(Integer.valueOf(8000), measuredScan.join());
+        lines.clear();
+        timeline.print(lines::add);
+        assertTrue(lines.get(1).endsWith(" ms"));
+    }
+
+    @Test
+    public void testBackgroundPhasesOffTheCommonPool() {
+        try (final StartupTimeline timeline = new StartupTimeline()) {
+            final CompletableFuture<String> thread = timeline.measureAsync("background", () -> Thread.currentThread().getName());
+            assertEquals("StartupPhase", thread.join());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.scorbutics.maven.util.path;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PathTrieTest {
+
+    private static final int ROOT = 1;
+    private static final int EXCLUDED = 2;
+
+    @Test
+    public void testExactMarks() {
+        final PathTrie trie = new PathTrie();
+        trie.mark(Paths.get("/project/module/src"), ROOT);
+        trie.mark(Paths.get("/project/module/target"), EXCLUDED);
+
+        assertTrue(trie.isMarked(Paths.get("/project/module/src"), ROOT));
+        assertFalse(trie.isMarked(Paths.get("/project/module/src"), EXCLUDED), "Flags are kept apart");
+        assertFalse(trie.isMarked(Paths.get("/project/module"), ROOT), "A prefix is not marked itself");
+        assertFalse(trie.isMarked(Paths.get("/project/module/src/main"), ROOT), "A descendant is not marked itself");
+        assertFalse(trie.isMarked(Paths.get("/other"), ROOT));
+        assertTrue(trie.isMarked(Paths.get("/project/module/target"), EXCLUDED | ROOT), "Any of the given flags matches");
+    }
+
+    @Test
+    public void testMarkedOrUnder() {
+        final PathTrie trie = new PathTrie();
+        trie.mark(Paths.get("/project/module/src"), ROOT);
+
+        assertTrue(trie.isMarkedOrUnder(Paths.get("/project/module/src"), ROOT));
+        assertTrue(trie.isMarkedOrUnder(Paths.get("/project/module/src/main/java/Foo.java"), ROOT));
+        assertFalse(trie.isMarkedOrUnder(Paths.get("/project/module"), ROOT));
+        assertFalse(trie.isMarkedOrUnder(Paths.get("/project/module/srcs"), ROOT), "Segments are matched whole, not as string prefixes");
+        assertFalse(trie.isMarkedOrUnder(Paths.get("project/module/src"), ROOT), "A relative path is not under an absolute one");
+    }
+
+    @Test
+    public void testSharedPrefixesAndGrowth() {
+        final PathTrie trie = new PathTrie();
+        final Set<Path> marked = new HashSet<>();
+        // Enough nodes to resize the child table several times
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 50; j++) {
+                final Path path = Paths.get("/project", "module" + i, "dir" + j);
+                trie.mark(path, ROOT);
+                marked.add(path);
+            }
+        }
+
+        assertEquals(1 + 1 + 200 + 200 * 50, trie.size(), "Root, /project, the modules and their directories");
+        marked.forEach(path -> assertTrue(trie.isMarked(path, ROOT), "Lost " + path));
+        assertFalse(trie.isMarked(Paths.get("/project", "module0", "dir50"), ROOT));
+        assertFalse(trie.isMarked(Paths.get("/project", "module200", "dir0"), ROOT));
+    }
+}
@@ -0,0 +1,96 @@
+package com.scorbutics.maven.util.pipeline;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelineStageTest {
+
+    @Test
+    public void testItemsOfAPartitionKeepTheirOrder() throws InterruptedException {
+        final Map<Integer, List<Integer>> received = new ConcurrentHashMap<>();
+        final CountDownLatch done = new CountDownLatch(1000);
+        final PipelineStage<int[]> stage = PipelineStage.<int[]>builder()
+                .name("test")
+                .capacity(64)
+                .workers(4)
+                .partitioner(item -> item[0])
+                .handler(item -> {
+                    received.computeIfAbsent(item[0], key -> Collections.synchronizedList(new ArrayList<>())).add(item[1]);
+                    done.countDown();
+                })
+                .logger(new SystemStreamLog())
+                .build();
+        stage.start();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(stage.submit(new int[] { i % 10, i }));
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            received.forEach((key, values) -> {
+                final List<Integer> sorted = new ArrayList<>(values);
+                Collections.sort(sorted);
+                assertEquals(sorted, values, "Out of order for key " + key);
+            });
+            final StageMetrics metrics = stage.getMetrics();
+            assertEquals(1000, metrics.getSubmitted());
+            assertEquals(1000, metrics.getProcessed());
+            assertTrue(metrics.getMaxQueued() <= 64);
+        } finally {
+            stage.close();
+        }
+    }
+
+    @Test
+    public void testFullQueueSlowsTheSubmitterDown() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final PipelineStage<Integer> stage = PipelineStage.<Integer>builder()
+                .name("slow")
+                .capacity(2)
+                .workers(1)
+                .handler(item -> {
+                    try {
+                        release.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .logger(new SystemStreamLog())
+                .build();
+        stage.start();
+        try {
+            // One item being handled, two waiting: the next one does not fit
+            for (int i = 0; i < 3; i++) {
+                assertTrue(stage.offer(i, 1000));
+            }
+            Thread.sleep(100);
+            assertFalse(stage.offer(3, 50), "The queue should be full");
+            assertTrue(stage.getMetrics().getBackpressureMs() >= 40);
+
+            release.countDown();
+            assertTrue(stage.offer(4, 1000));
+        } finally {
+            stage.close();
+        }
+    }
+
+    @Test
+    public void testStageWithoutWorkerRunsOnTheSubmitter() {
+        final List<String> threads = new ArrayList<>();
+        final PipelineStage<String> stage = PipelineStage.<String>builder()
+                .name("inline")
+                .handler(item -> threads.add(Thread.currentThread().getName()))
+                .logger(new SystemStreamLog())
+                .build();
+        stage.submit("item");
+
+        assertEquals(Collections.singletonList(Thread.currentThread().getName()), threads);
+        assertEquals(1, stage.getMetrics().getProcessed());
+        assertEquals(0, stage.getMetrics().getCapacity());
+    }
+}